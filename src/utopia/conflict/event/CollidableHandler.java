@@ -1,13 +1,41 @@
 package utopia.conflict.event;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import utopia.conflict.util.Bounds;
+import utopia.conflict.util.BroadPhase;
+import utopia.conflict.util.Circle;
 import utopia.conflict.util.CollisionCheck;
 import utopia.conflict.util.CollisionData;
+import utopia.conflict.util.DynamicAabbTree;
+import utopia.conflict.util.GeometryPredicates;
+import utopia.conflict.util.Polygon;
+import utopia.conflict.util.RaycastHit;
+import utopia.conflict.util.SpatialHashGrid;
+import utopia.conflict.util.SweepAndPrune;
+import utopia.genesis.util.Transformation;
+import utopia.genesis.util.Vector3D;
 import utopia.inception.handling.Handler;
 import utopia.inception.handling.HandlerType;
 
 /**
- * CollidableHandler keeps track of all the objects that may collide with specific collision 
- * listeners
+ * CollidableHandler keeps track of all the objects that may collide with specific collision
+ * listeners. The handled objects are indexed in a broad phase structure so that each
+ * listener only needs to be checked against the objects near it. Static objects are kept 
+ * in a separate index and their shapes are transformed into absolute space only once. The 
+ * shapes of the moving objects are transformed at most once per transformation, no matter 
+ * how many listeners check them. The queries test the objects as the broad phase finds 
+ * them and don't share any buffers, so they may be nested. After 
+ * {@link #updateBroadPhase()} they may also be made from multiple threads at once, as long 
+ * as the handled objects don't change in the meantime.
  * @author Mikko Hilpinen
  * @since 12.3.2015
  */
@@ -15,12 +43,58 @@ public class CollidableHandler extends Handler<Collidable>
 {
 	// ATTRIBUTES	-----------------------------
 	
-	private CollisionListener lastListener;
-	private double lastDuration;
+	/**
+	 * The width and height of the grid cells used when no other broad phase is specified
+	 */
+	public static final double DEFAULT_CELL_SIZE = 128;
 	
+	private final BroadPhase<Collidable> broadPhase, staticBroadPhase;
+	private final Map<Collidable, IndexEntry> entries = new HashMap<>();
+	private int updateIndex = 0;
+	private ForkJoinPool batchPool = ForkJoinPool.commonPool();
+	private boolean sweptBounds = false;
 	
-	// IMPLEMENTED METHODS	---------------------
+	
+	// CONSTRUCTOR	-----------------------------
+	
+	/**
+	 * Creates a new handler that uses a spatial hash grid as its broad phase
+	 */
+	public CollidableHandler()
+	{
+		this(new SpatialHashGrid<Collidable>(DEFAULT_CELL_SIZE));
+	}
+
+	/**
+	 * Creates a new handler. Static objects are indexed in a separate tree.
+	 * @param broadPhase The (empty) broad phase structure used for finding the collidables 
+	 * near each collision listener. For example {@link SpatialHashGrid}, 
+	 * {@link SweepAndPrune} or {@link DynamicAabbTree}.
+	 */
+	public CollidableHandler(BroadPhase<Collidable> broadPhase)
+	{
+		// Static objects never move so the tree doesn't need any margin
+		this(broadPhase, new DynamicAabbTree<Collidable>(0));
+	}
+
+	/**
+	 * Creates a new handler
+	 * @param broadPhase The (empty) broad phase structure used for finding the moving 
+	 * collidables near each collision listener
+	 * @param staticBroadPhase The (empty) broad phase structure used for finding the static 
+	 * collidables near each collision listener
+	 * @see CollisionInformation#setStatic(boolean)
+	 */
+	public CollidableHandler(BroadPhase<Collidable> broadPhase, 
+			BroadPhase<Collidable> staticBroadPhase)
+	{
+		this.broadPhase = broadPhase;
+		this.staticBroadPhase = staticBroadPhase;
+	}
 
+
+	// IMPLEMENTED METHODS	---------------------
+	
 	@Override
 	public HandlerType getHandlerType()
 	{
@@ -30,45 +104,943 @@ public class CollidableHandler extends Handler<Collidable>
 	@Override
 	protected boolean handleObject(Collidable h)
 	{
-		// An object can't collide with itself
-		if (h == null || h.equals(this.lastListener.getCollisionListeningInformation().getCollidable()))
-			return true;
-		
-		// Checks if the two objects accept each other as collided objects (= is collision 
-		// checking necessary)
-		if (h.getCollisionInformation() == null || 
-				!h.getCollisionInformation().allowsCollisionEventsFor(this.lastListener) || 
-				!this.lastListener.getCollisionListeningInformation().isInterestedInCollisionsWith(h))
-			return true;
-		
-		// Checks for collisions between the collidable and the collision listener
-		CollisionData data = CollisionCheck.checkCollidableCollisions(
-				this.lastListener.getCollisionListeningInformation().getCollidable(), h, 
-				this.lastListener.getCollisionListeningInformation().mtvShouldBeCalculated(), 
-				this.lastListener.getCollisionListeningInformation().collisionPointsShouldBeCalculated());
-		
-		// If there was a collision, informs the listener
-		if (data.collided())
-			this.lastListener.onCollisionEvent(new CollisionEvent(h, data, this.lastDuration));
-		
+		// Updates the object's position in the broad phase and marks it as still handled
+		if (h != null)
+		{
+			// The transformation from the last update is where the object started this step
+			IndexEntry entry = this.entries.get(h);
+			if (entry != null)
+				entry.previousTransformation = entry.transformation;
+			
+			entry = refresh(h);
+			if (entry != null)
+				entry.lastUpdateIndex = this.updateIndex;
+		}
+
 		return true;
 	}
+
+
+	// ACCESSORS	-----------------------------
 	
-	
+	/**
+	 * @return The pool used for performing batch queries in parallel. Null if the batches 
+	 * are performed sequentially.
+	 */
+	public ForkJoinPool getBatchQueryPool()
+	{
+		return this.batchPool;
+	}
+
+	/**
+	 * Changes the pool used for performing batch queries in parallel. The common fork join 
+	 * pool is used by default.
+	 * @param batchPool The pool used for performing batch queries. Null if the batches 
+	 * should be performed sequentially on the calling thread.
+	 * @see #checkLinesOfSight(Vector3D[], Vector3D[], long, boolean[])
+	 * @see #raycastDistances(Vector3D[], Vector3D[], long, double[])
+	 */
+	public void setBatchQueryPool(ForkJoinPool batchPool)
+	{
+		this.batchPool = batchPool;
+	}
+
+	/**
+	 * @return Do the bounds of the moving objects cover the whole area the objects moved 
+	 * through since the previous broad phase update
+	 * @see #setSweptBounds(boolean)
+	 */
+	public boolean usesSweptBounds()
+	{
+		return this.sweptBounds;
+	}
+
+	/**
+	 * Changes whether the bounds of the moving objects should cover the whole area the 
+	 * objects moved through since the previous broad phase update, instead of just their 
+	 * current area. Swept bounds are needed for continuous collision detection, so that 
+	 * fast objects can find the objects they passed by. The change takes effect on the 
+	 * next {@link #updateBroadPhase()}. Disabled by default.
+	 * @param sweptBounds Should the moving objects use swept bounds
+	 */
+	public void setSweptBounds(boolean sweptBounds)
+	{
+		this.sweptBounds = sweptBounds;
+	}
+
+
 	// OTHER METHODS	------------------------
 	
 	/**
-	 * Checks for collisions between the collision listener and the collidable objects. The 
-	 * listener will be informed about each collision event.
+	 * Updates the broad phase to match the current state of the handled objects. Bounds are
+	 * only recalculated for the objects whose transformation has changed since the last
+	 * update. The collision handler calls this at the beginning of each step.
+	 */
+	public void updateBroadPhase()
+	{
+		this.updateIndex ++;
+		handleObjects(true);
+		
+		// Removes the objects that are no longer handled
+		Iterator<IndexEntry> iterator = this.entries.values().iterator();
+		while (iterator.hasNext())
+		{
+			IndexEntry entry = iterator.next();
+			if (entry.lastUpdateIndex != this.updateIndex)
+			{
+				getBroadPhaseFor(entry).remove(entry.collidable);
+				iterator.remove();
+			}
+		}
+		
+		// Once the pending work is done, the broad phases can be searched from multiple 
+		// threads at once
+		this.broadPhase.flush();
+		this.staticBroadPhase.flush();
+	}
+
+	/**
+	 * Checks for collisions between the collision listener and the collidable objects. The
+	 * listener will be informed about each collision event. Only the collidables near the
+	 * listener (according to the last {@link #updateBroadPhase()}) are checked. Static 
+	 * listeners are never checked against other static objects. This method doesn't 
+	 * remember earlier contacts, so every collision is reported as a 
+	 * {@link CollisionEventType#BEGIN} event.
 	 * @param listener The listener that will be informed about collision events concerning it.
 	 * @param duration The duration of the collision
 	 */
 	public void checkForCollisionsWith(CollisionListener listener, double duration)
 	{
-		this.lastDuration = duration;
-		this.lastListener = listener;
-		handleObjects(true);
+		List<Collidable> candidates = new ArrayList<>();
+		TransformedCollisionInformation userShape = findCandidatesFor(listener, candidates);
+		if (userShape == null)
+			return;
+		
+		CollisionListeningInformation listeningInformation = 
+				listener.getCollisionListeningInformation();
+		for (Collidable target : candidates)
+		{
+			// Checks for collisions between the collidable and the collision listener
+			CollisionData data = CollisionCheck.checkCollisions(userShape, getShapeOf(target),
+					listeningInformation.mtvShouldBeCalculated(),
+					listeningInformation.collisionPointsShouldBeCalculated());
+			
+			// If there was a collision, informs the listener
+			if (data.collided())
+				listener.onCollisionEvent(new CollisionEvent(target, data, duration));
+		}
+
+		// The listener may have moved in response to the events
+		refreshListener(listener);
+	}
+
+	/**
+	 * Finds the collidables whose collision area contains the provided point. Only the 
+	 * objects near the point according to the last {@link #updateBroadPhase()} are checked.
+	 * @param point A point in absolute space
+	 * @param results The collection the found objects are added to
+	 */
+	public void queryPoint(Vector3D point, Collection<? super Collidable> results)
+	{
+		queryPoint(point, BroadPhase.ALL_LAYERS, results);
+	}
+
+	/**
+	 * Finds the collidables on the provided layers whose collision area contains the 
+	 * provided point. Only the objects near the point according to the last 
+	 * {@link #updateBroadPhase()} are checked. The point is compared to the shapes the 
+	 * objects have in absolute space, so circles that the transformation would make 
+	 * ellipsoid are checked as polygons, just like in collision checks.
+	 * @param point A point in absolute space
+	 * @param layerMask The collision layers that are searched
+	 * @param results The collection the found objects are added to
+	 */
+	public void queryPoint(Vector3D point, long layerMask, 
+			Collection<? super Collidable> results)
+	{
+		double x = point.getX(), y = point.getY();
+		BroadPhase.QueryCallback<Collidable> test = target -> 
+		{
+			if (target.getCollisionInformation() != null && 
+					!target.getIsDeadStateOperator().getState() && 
+					contains(getShapeOf(target), x, y))
+				results.add(target);
+		};
+		
+		this.broadPhase.query(x, y, x, y, layerMask, test);
+		this.staticBroadPhase.query(x, y, x, y, layerMask, test);
+	}
+
+	/**
+	 * Finds the collidables whose collision area overlaps the provided area. Only the 
+	 * objects near the area according to the last {@link #updateBroadPhase()} are checked.
+	 * @param area An area in absolute space
+	 * @param results The collection the found objects are added to
+	 */
+	public void queryArea(Bounds area, Collection<? super Collidable> results)
+	{
+		queryArea(area, BroadPhase.ALL_LAYERS, results);
+	}
+
+	/**
+	 * Finds the collidables on the provided layers whose collision area overlaps the 
+	 * provided area. Only the objects near the area according to the last 
+	 * {@link #updateBroadPhase()} are checked.
+	 * @param area An area in absolute space
+	 * @param layerMask The collision layers that are searched
+	 * @param results The collection the found objects are added to
+	 */
+	public void queryArea(Bounds area, long layerMask, Collection<? super Collidable> results)
+	{
+		// The area is compared directly to the shapes the objects already have
+		BroadPhase.QueryCallback<Collidable> test = target -> 
+		{
+			if (target.getCollisionInformation() != null && 
+					!target.getIsDeadStateOperator().getState() && 
+					overlaps(getShapeOf(target), area))
+				results.add(target);
+		};
+		
+		this.broadPhase.query(area.getMinX(), area.getMinY(), area.getMaxX(), area.getMaxY(), 
+				layerMask, test);
+		this.staticBroadPhase.query(area.getMinX(), area.getMinY(), area.getMaxX(), 
+				area.getMaxY(), layerMask, test);
+	}
+
+	/**
+	 * Finds the collidables whose collision area overlaps the provided polygon. Only the 
+	 * objects near the polygon according to the last {@link #updateBroadPhase()} are 
+	 * checked.
+	 * @param area A polygon in absolute space. The polygon doesn't need to be convex.
+	 * @param results The collection the found objects are added to
+	 */
+	public void queryPolygon(Polygon area, Collection<? super Collidable> results)
+	{
+		queryPolygon(area, BroadPhase.ALL_LAYERS, results);
+	}
+
+	/**
+	 * Finds the collidables on the provided layers whose collision area overlaps the 
+	 * provided polygon. Only the objects near the polygon according to the last 
+	 * {@link #updateBroadPhase()} are checked.
+	 * @param area A polygon in absolute space. The polygon doesn't need to be convex, but 
+	 * it is divided into convex pieces on each query, which creates new polygons. When the 
+	 * same polygon is queried repeatedly, it's cheaper to query a shape that keeps the 
+	 * pieces.
+	 * @param layerMask The collision layers that are searched
+	 * @param results The collection the found objects are added to
+	 * @see #queryShape(TransformedCollisionInformation, long, Collection)
+	 */
+	public void queryPolygon(Polygon area, long layerMask, 
+			Collection<? super Collidable> results)
+	{
+		List<Polygon> pieces = area.toConvexPolygons();
+		Vector3D min = area.getTopLeft(), max = area.getBottomRight();
+		BroadPhase.QueryCallback<Collidable> test = target -> 
+		{
+			if (target.getCollisionInformation() != null && 
+					!target.getIsDeadStateOperator().getState())
+			{
+				TransformedCollisionInformation shape = getShapeOf(target);
+				if (shape.getBounds().overlaps(min.getX(), min.getY(), max.getX(), 
+						max.getY()) && overlaps(shape, pieces))
+					results.add(target);
+			}
+		};
+		
+		this.broadPhase.query(min.getX(), min.getY(), max.getX(), max.getY(), layerMask, test);
+		this.staticBroadPhase.query(min.getX(), min.getY(), max.getX(), max.getY(), layerMask, 
+				test);
+	}
+
+	/**
+	 * Finds the collidables whose collision area overlaps the provided shape. Only the 
+	 * objects near the shape according to the last {@link #updateBroadPhase()} are checked.
+	 * @param shape A shape in absolute space
+	 * @param results The collection the found objects are added to
+	 */
+	public void queryShape(TransformedCollisionInformation shape, 
+			Collection<? super Collidable> results)
+	{
+		queryShape(shape, BroadPhase.ALL_LAYERS, results);
+	}
+
+	/**
+	 * Finds the collidables on the provided layers whose collision area overlaps the 
+	 * provided shape. Only the objects near the shape according to the last 
+	 * {@link #updateBroadPhase()} are checked. The shape keeps its transformed pieces, so 
+	 * querying the same instance repeatedly is cheaper than querying a polygon.
+	 * @param shape A shape in absolute space
+	 * @param layerMask The collision layers that are searched
+	 * @param results The collection the found objects are added to
+	 */
+	public void queryShape(TransformedCollisionInformation shape, long layerMask, 
+			Collection<? super Collidable> results)
+	{
+		BroadPhase.QueryCallback<Collidable> test = target -> 
+		{
+			if (target.getCollisionInformation() != null && 
+					!target.getIsDeadStateOperator().getState() && 
+					CollisionCheck.checkCollisions(shape, getShapeOf(target), false, 
+					false).collided())
+				results.add(target);
+		};
+		
+		Bounds area = shape.getBounds();
+		this.broadPhase.query(area.getMinX(), area.getMinY(), area.getMaxX(), area.getMaxY(), 
+				layerMask, test);
+		this.staticBroadPhase.query(area.getMinX(), area.getMinY(), area.getMaxX(), 
+				area.getMaxY(), layerMask, test);
+	}
+
+	/**
+	 * Finds the first collidable a line segment hits. Only the objects along the segment 
+	 * according to the last {@link #updateBroadPhase()} are checked.
+	 * @param start The start point of the segment (absolute space)
+	 * @param end The end point of the segment (absolute space)
+	 * @return The first hit along the segment or null if the segment doesn't hit anything
+	 */
+	public CollidableRaycastHit raycast(Vector3D start, Vector3D end)
+	{
+		return raycast(start, end, BroadPhase.ALL_LAYERS);
+	}
+
+	/**
+	 * Finds the first collidable on the provided layers a line segment hits. Only the 
+	 * objects along the segment according to the last {@link #updateBroadPhase()} are 
+	 * checked.
+	 * @param start The start point of the segment (absolute space)
+	 * @param end The end point of the segment (absolute space)
+	 * @param layerMask The collision layers that are searched
+	 * @return The first hit along the segment or null if the segment doesn't hit anything
+	 */
+	public CollidableRaycastHit raycast(Vector3D start, Vector3D end, long layerMask)
+	{
+		// The broad phases go through the objects from front to back and the search is 
+		// shortened whenever something is hit, so only the objects before the first hit 
+		// are tested
+		RaycastSearch search = new RaycastSearch(start, end, false);
+		search.run(layerMask);
+		
+		return search.nearest;
+	}
+
+	/**
+	 * Checks a batch of lines of sight at once. A line of sight is clear when the segment 
+	 * between its start and end point doesn't hit any collidable on the provided layers. 
+	 * The segments are grouped by location and the groups are checked in parallel in the 
+	 * batch query pool. Only the objects along the segments according to the last 
+	 * {@link #updateBroadPhase()} are checked. The handled objects shouldn't change during 
+	 * the check.
+	 * @param starts The start points of the segments (absolute space)
+	 * @param ends The end points of the segments (absolute space)
+	 * @param layerMask The collision layers that may block the lines of sight
+	 * @param results The array that is filled with the results. Each index is set to true 
+	 * if the line of sight at the same index is clear.
+	 * @see #setBatchQueryPool(ForkJoinPool)
+	 */
+	public void checkLinesOfSight(Vector3D[] starts, Vector3D[] ends, long layerMask, 
+			boolean[] results)
+	{
+		castBatch(new RayBatch(starts, ends, layerMask, results, null));
+	}
+
+	/**
+	 * Casts a batch of line segments at once and finds the distance to the first hit along 
+	 * each of them. The segments are grouped by location and the groups are cast in 
+	 * parallel in the batch query pool. Only the objects along the segments according to the 
+	 * last {@link #updateBroadPhase()} are checked. The handled objects shouldn't change 
+	 * during the check.
+	 * @param starts The start points of the segments (absolute space)
+	 * @param ends The end points of the segments (absolute space)
+	 * @param layerMask The collision layers that are searched
+	 * @param distances The array that is filled with the results. Each index is set to the 
+	 * distance between the segment's start point and its first hit, or 
+	 * {@link Double#POSITIVE_INFINITY} if the segment didn't hit anything.
+	 * @see #setBatchQueryPool(ForkJoinPool)
+	 */
+	public void raycastDistances(Vector3D[] starts, Vector3D[] ends, long layerMask, 
+			double[] distances)
+	{
+		castBatch(new RayBatch(starts, ends, layerMask, null, distances));
+	}
+
+	/**
+	 * Finds the collidables the listener may be colliding with. Only the collidables near the 
+	 * listener that accept the listener and that the listener is interested in are included.
+	 * @param listener A collision listener
+	 * @param candidates The collection the possibly colliding objects are added to
+	 * @return The listener's shape in absolute space. Null if the listener doesn't have 
+	 * a collidable form, in which case no candidates are found either.
+	 */
+	TransformedCollisionInformation findCandidatesFor(CollisionListener listener, 
+			Collection<Collidable> candidates)
+	{
+		CollisionListeningInformation listeningInformation =
+				listener.getCollisionListeningInformation();
+		Collidable user = listeningInformation.getCollidable();
+		if (user == null || user.getCollisionInformation() == null)
+			return null;
+		
+		// Finds the collidables near the listener. Objects on the layers the listener isn't 
+		// interested in are skipped by the broad phase.
+		long mask = listeningInformation.getCollisionMask();
+		List<Collidable> nearby = new ArrayList<>();
+		TransformedCollisionInformation userShape;
+		IndexEntry userEntry = this.entries.containsKey(user) ? refresh(user) : null;
+		if (userEntry == null)
+		{
+			userShape = new TransformedCollisionInformation(user);
+			this.broadPhase.query(userShape.getBounds(), mask, nearby);
+			if (!userShape.getInformation().isStatic())
+				this.staticBroadPhase.query(userShape.getBounds(), mask, nearby);
+		}
+		else if (userEntry.isStatic)
+		{
+			userShape = userEntry.shape;
+			this.broadPhase.query(userEntry.bounds, mask, nearby);
+		}
+		else
+		{
+			userShape = userEntry.getShape(userEntry.information, userEntry.transformation);
+			this.broadPhase.queryOverlapping(user, mask, nearby);
+			this.staticBroadPhase.query(userEntry.bounds, mask, nearby);
+		}
+		
+		for (Collidable target : nearby)
+		{
+			if (acceptsCollisionBetween(listener, target))
+				candidates.add(target);
+		}
+		
+		return userShape;
+	}
+
+	/**
+	 * Checks whether the listener should be informed about collisions with the target
+	 * @param listener A collision listener
+	 * @param target A collidable object
+	 * @return Should the collisions between the two be checked
+	 */
+	boolean acceptsCollisionBetween(CollisionListener listener, Collidable target)
+	{
+		CollisionListeningInformation listeningInformation =
+				listener.getCollisionListeningInformation();
+		
+		// An object can't collide with itself
+		if (target.equals(listeningInformation.getCollidable()) || 
+				target.getIsDeadStateOperator().getState())
+			return false;
+		
+		// Checks if the two objects accept each other as collided objects (= is collision
+		// checking necessary)
+		CollisionInformation information = target.getCollisionInformation();
+		return information != null && 
+				(information.getCollisionLayers() & 
+				listeningInformation.getCollisionMask()) != 0 && 
+				information.allowsCollisionEventsForLayers(
+				listeningInformation.getListenerLayers()) &&
+				information.allowsCollisionEventsFor(listener) &&
+				listeningInformation.isInterestedInCollisionsWith(target);
+	}
+
+	/**
+	 * @param target A collidable object
+	 * @return The object's shape in absolute space. The shapes of static objects have 
+	 * already been transformed. The shapes of the other indexed objects are reused until 
+	 * their transformation changes.
+	 */
+	TransformedCollisionInformation getShapeOf(Collidable target)
+	{
+		IndexEntry entry = this.entries.get(target);
+		if (entry == null)
+			return new TransformedCollisionInformation(target);
+		else if (entry.isStatic)
+			return entry.shape;
+		else
+			return entry.getShape(target.getCollisionInformation(), target.getTransformation());
+	}
+
+	/**
+	 * @param target A collidable object
+	 * @return The object's transformation at the previous broad phase update. Null if the 
+	 * object wasn't indexed at the time.
+	 */
+	Transformation getPreviousTransformationOf(Collidable target)
+	{
+		IndexEntry entry = this.entries.get(target);
+		if (entry == null)
+			return null;
+		else
+			return entry.previousTransformation;
+	}
+
+	/**
+	 * Updates the listener's position in the broad phase. This should be called after the 
+	 * listener has been informed about its collisions, since it may have moved in response.
+	 * @param listener A collision listener
+	 */
+	void refreshListener(CollisionListener listener)
+	{
+		Collidable user = listener.getCollisionListeningInformation().getCollidable();
+		if (user != null && this.entries.containsKey(user))
+			refresh(user);
+	}
+
+	private void castBatch(RayBatch batch)
+	{
+		// Once the pending work is done, the broad phases can be searched from multiple 
+		// threads at once
+		this.broadPhase.flush();
+		this.staticBroadPhase.flush();
+		
+		int size = batch.order.length;
+		if (this.batchPool == null || size <= BatchAction.THRESHOLD)
+			batch.cast(0, size);
+		else
+			this.batchPool.invoke(new BatchAction(batch, 0, size));
+	}
+
+	private IndexEntry refresh(Collidable collidable)
+	{
+		IndexEntry entry = this.entries.get(collidable);
+		CollisionInformation information = collidable.getCollisionInformation();
+		
+		// Objects without collision information can't be collided with
+		if (information == null)
+		{
+			if (entry != null)
+			{
+				getBroadPhaseFor(entry).remove(collidable);
+				this.entries.remove(collidable);
+			}
+			return null;
+		}
+
+		Transformation transformation = collidable.getTransformation();
+		if (entry == null)
+		{
+			entry = new IndexEntry(collidable);
+			entry.update(information, transformation, null);
+			this.entries.put(collidable, entry);
+			getBroadPhaseFor(entry).add(collidable, entry.bounds, entry.layers);
+			return entry;
+		}
+		
+		// Moving objects may cover the area they moved through
+		Transformation sweepStart = null;
+		if (this.sweptBounds && !information.isStatic())
+			sweepStart = entry.previousTransformation;
+		
+		// Objects that become static or stop being static are moved to the other index
+		if (entry.isStatic != information.isStatic())
+		{
+			getBroadPhaseFor(entry).remove(collidable);
+			entry.update(information, transformation, sweepStart);
+			getBroadPhaseFor(entry).add(collidable, entry.bounds, entry.layers);
+		}
+		// Transformations are immutable so a changed transformation means a new instance
+		else if (entry.transformation != transformation || entry.information != information || 
+				entry.sweepStart != sweepStart)
+		{
+			entry.update(information, transformation, sweepStart);
+			getBroadPhaseFor(entry).update(collidable, entry.bounds, entry.layers);
+		}
+		else if (entry.layers != information.getCollisionLayers())
+		{
+			entry.layers = information.getCollisionLayers();
+			getBroadPhaseFor(entry).update(collidable, entry.bounds, entry.layers);
+		}
+
+		return entry;
+	}
+
+	private BroadPhase<Collidable> getBroadPhaseFor(IndexEntry entry)
+	{
+		if (entry.isStatic)
+			return this.staticBroadPhase;
+		else
+			return this.broadPhase;
+	}
+
+	private static boolean contains(TransformedCollisionInformation shape, double x, double y)
+	{
+		if (!shape.getBounds().contains(x, y))
+			return false;
+		// The bounding box limits the other shapes, like in the relative space check
+		if (shape.getInformation().usesBoundingBox() && 
+				!GeometryPredicates.convexContains(shape.getBoundingBox(), x, y))
+			return false;
+		
+		for (Polygon polygon : shape.getPolygons())
+		{
+			if (GeometryPredicates.convexContains(polygon, x, y))
+				return true;
+		}
+		
+		if (shape.circlesSupportTransformation())
+		{
+			for (Circle circle : shape.getCircles())
+			{
+				double xDiff = x - circle.getCenter().getX();
+				double yDiff = y - circle.getCenter().getY();
+				if (xDiff * xDiff + yDiff * yDiff <= circle.getRadius() * circle.getRadius())
+					return true;
+			}
+		}
+		else
+		{
+			for (Polygon polygon : shape.getCirclePolygons())
+			{
+				if (GeometryPredicates.convexContains(polygon, x, y))
+					return true;
+			}
+		}
+		
+		return false;
+	}
+
+	private static boolean overlaps(TransformedCollisionInformation shape, Bounds area)
+	{
+		Bounds shapeBounds = shape.getBounds();
+		if (!area.overlaps(shapeBounds))
+			return false;
+		// Shapes that lie completely inside the area can't miss it
+		if (area.contains(shapeBounds))
+			return true;
+		
+		for (Polygon polygon : shape.getPolygons())
+		{
+			if (area.overlaps(polygon))
+				return true;
+		}
+		
+		// Circles are only converted into polygons when the transformation would make them 
+		// ellipsoid
+		if (shape.circlesSupportTransformation())
+		{
+			for (Circle circle : shape.getCircles())
+			{
+				if (area.overlaps(circle))
+					return true;
+			}
+		}
+		else
+		{
+			for (Polygon polygon : shape.getCirclePolygons())
+			{
+				if (area.overlaps(polygon))
+					return true;
+			}
+		}
+		
+		return false;
+	}
+
+	private static boolean overlaps(TransformedCollisionInformation shape, 
+			List<Polygon> pieces)
+	{
+		// Only the pieces whose bounding circles overlap are checked
+		List<Polygon> polygons = shape.getPolygons();
+		List<Circle> polygonCircles = shape.getPolygonBoundingCircles();
+		boolean circlesAsPolygons = !shape.circlesSupportTransformation();
+		for (Polygon piece : pieces)
+		{
+			Circle pieceCircle = piece.getBoundingCircle();
+			for (int i = 0; i < polygons.size(); i++)
+			{
+				if (pieceCircle.overlaps(polygonCircles.get(i)) && 
+						CollisionCheck.checkPolygonCollision(piece, polygons.get(i), false, 
+						false).collided())
+					return true;
+			}
+			
+			if (circlesAsPolygons)
+			{
+				for (Polygon polygon : shape.getCirclePolygons())
+				{
+					if (CollisionCheck.checkPolygonCollision(piece, polygon, false, 
+							false).collided())
+						return true;
+				}
+			}
+			else
+			{
+				for (Circle circle : shape.getCircles())
+				{
+					if (pieceCircle.overlaps(circle) && 
+							CollisionCheck.checkPolygonCircleCollision(piece, circle, false, 
+							false).collided())
+						return true;
+				}
+			}
+		}
+		
+		return false;
+	}
+
+	private static Bounds calculateBounds(CollisionInformation information,
+			Transformation transformation)
+	{
+		return information.getBounds().transformedWith(transformation);
+	}
+
+	private static int[] orderByLocation(Vector3D[] starts, Vector3D[] ends)
+	{
+		// Finds the area that contains the middle points of the segments
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < starts.length; i++)
+		{
+			double x = (starts[i].getX() + ends[i].getX()) / 2;
+			double y = (starts[i].getY() + ends[i].getY()) / 2;
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+		}
+		double scaleX = maxX > minX ? 0x7fff / (maxX - minX) : 0;
+		double scaleY = maxY > minY ? 0x7fff / (maxY - minY) : 0;
+		
+		// Sorts the segments along a Z-order curve. The curve position is kept in the upper 
+		// half of each key and the segment index in the lower half.
+		long[] keys = new long[starts.length];
+		for (int i = 0; i < starts.length; i++)
+		{
+			int x = (int) (((starts[i].getX() + ends[i].getX()) / 2 - minX) * scaleX);
+			int y = (int) (((starts[i].getY() + ends[i].getY()) / 2 - minY) * scaleY);
+			keys[i] = ((spreadBits(x) | (spreadBits(y) << 1)) << 32) | i;
+		}
+		Arrays.sort(keys);
+		
+		int[] order = new int[keys.length];
+		for (int i = 0; i < keys.length; i++)
+		{
+			order[i] = (int) keys[i];
+		}
+		
+		return order;
+	}
+
+	private static long spreadBits(int value)
+	{
+		// Places a zero bit between each of the lowest 16 bits of the value
+		long bits = value & 0xffffL;
+		bits = (bits | (bits << 8)) & 0x00ff00ffL;
+		bits = (bits | (bits << 4)) & 0x0f0f0f0fL;
+		bits = (bits | (bits << 2)) & 0x33333333L;
+		bits = (bits | (bits << 1)) & 0x55555555L;
+		return bits;
+	}
+
+
+	// NESTED CLASSES	------------------------
+	
+	private class RaycastSearch implements BroadPhase.RaycastCallback<Collidable>
+	{
+		// ATTRIBUTES	------------------------
+		
+		private final Vector3D start, end;
+		private final boolean anyHit;
+		private CollidableRaycastHit nearest = null;
+		
+		
+		// CONSTRUCTOR	------------------------
+		
+		public RaycastSearch(Vector3D start, Vector3D end, boolean anyHit)
+		{
+			this.start = start;
+			this.end = end;
+			this.anyHit = anyHit;
+		}
+
+
+		// IMPLEMENTED METHODS	----------------
+		
+		@Override
+		public double onItemReached(Collidable target, double maxFraction)
+		{
+			if (target.getCollisionInformation() == null || 
+					target.getIsDeadStateOperator().getState())
+				return maxFraction;
+			
+			RaycastHit hit = CollisionCheck.raycast(getShapeOf(target), this.start, this.end);
+			if (hit == null || hit.getFraction() > maxFraction)
+				return maxFraction;
+			
+			// When any hit will do, the search ends at the first one
+			this.nearest = new CollidableRaycastHit(target, hit);
+			return this.anyHit ? 0 : hit.getFraction();
+		}
+
+
+		// OTHER METHODS	--------------------
+		
+		public void run(long layerMask)
+		{
+			CollidableHandler.this.broadPhase.raycast(this.start, this.end, 1, layerMask, this);
+			if (this.nearest == null)
+				CollidableHandler.this.staticBroadPhase.raycast(this.start, this.end, 1, 
+						layerMask, this);
+			else if (!this.anyHit)
+				CollidableHandler.this.staticBroadPhase.raycast(this.start, this.end, 
+						this.nearest.getFraction(), layerMask, this);
+		}
+	}
+
+	private class RayBatch
+	{
+		// ATTRIBUTES	------------------------
+		
+		private final Vector3D[] starts, ends;
+		private final long layerMask;
+		private final boolean[] clear;
+		private final double[] distances;
+		private final int[] order;
+		
+		
+		// CONSTRUCTOR	------------------------
+		
+		public RayBatch(Vector3D[] starts, Vector3D[] ends, long layerMask, boolean[] clear, 
+				double[] distances)
+		{
+			int size = starts.length;
+			if (ends.length != size || (clear != null && clear.length != size) || 
+					(distances != null && distances.length != size))
+				throw new IllegalArgumentException(
+						"The segment and result arrays must be of equal length");
+			
+			this.starts = starts;
+			this.ends = ends;
+			this.layerMask = layerMask;
+			this.clear = clear;
+			this.distances = distances;
+			this.order = orderByLocation(starts, ends);
+		}
+
+
+		// OTHER METHODS	--------------------
+		
+		public void cast(int from, int to)
+		{
+			for (int i = from; i < to; i++)
+			{
+				int index = this.order[i];
+				RaycastSearch search = new RaycastSearch(this.starts[index], this.ends[index], 
+						this.clear != null);
+				search.run(this.layerMask);
+				
+				if (this.clear != null)
+					this.clear[index] = search.nearest == null;
+				else
+					this.distances[index] = search.nearest == null ? 
+							Double.POSITIVE_INFINITY : search.nearest.getDistance();
+			}
+		}
+	}
+
+	private static class BatchAction extends RecursiveAction
+	{
+		// ATTRIBUTES	------------------------
+		
+		private static final long serialVersionUID = 1L;
+		private static final int THRESHOLD = 64;
+		
+		private final RayBatch batch;
+		private final int start, end;
+		
+		
+		// CONSTRUCTOR	------------------------
+		
+		public BatchAction(RayBatch batch, int start, int end)
+		{
+			this.batch = batch;
+			this.start = start;
+			this.end = end;
+		}
+		
+		
+		// IMPLEMENTED METHODS	----------------
+		
+		@Override
+		protected void compute()
+		{
+			// Small enough ranges are cast directly, larger ones are split in half
+			if (this.end - this.start <= THRESHOLD)
+				this.batch.cast(this.start, this.end);
+			else
+			{
+				int middle = (this.start + this.end) / 2;
+				invokeAll(new BatchAction(this.batch, this.start, middle), 
+						new BatchAction(this.batch, middle, this.end));
+			}
+		}
+	}
+
+	private static class IndexEntry
+	{
+		// ATTRIBUTES	------------------------
+		
+		private final Collidable collidable;
+		private CollisionInformation information;
+		private Transformation transformation, previousTransformation, sweepStart;
+		private Bounds bounds;
+		private long layers;
+		private boolean isStatic;
+		// The shape may be requested from multiple threads during batch queries
+		private volatile TransformedCollisionInformation shape;
+		private int lastUpdateIndex;
+		
+		
+		// CONSTRUCTOR	------------------------
+		
+		public IndexEntry(Collidable collidable)
+		{
+			this.collidable = collidable;
+		}
+
+
+		// OTHER METHODS	--------------------
+		
+		public void update(CollisionInformation information, Transformation transformation, 
+				Transformation sweepStart)
+		{
+			this.information = information;
+			this.transformation = transformation;
+			this.sweepStart = sweepStart;
+			this.isStatic = information.isStatic();
+			this.layers = information.getCollisionLayers();
+			
+			// The shapes of static objects are transformed right away and then reused
+			if (this.isStatic)
+			{
+				this.shape = new TransformedCollisionInformation(information, transformation);
+				this.shape.prepare();
+				this.bounds = this.shape.getBounds();
+			}
+			else
+			{
+				this.bounds = calculateBounds(information, transformation);
+				if (sweepStart != null && sweepStart != transformation)
+					this.bounds = this.bounds.combinedWith(calculateBounds(information, 
+							sweepStart));
+			}
+		}
 		
-		this.lastListener = null;
+		public TransformedCollisionInformation getShape(CollisionInformation information, 
+				Transformation transformation)
+		{
+			// Transformations are immutable, so a new transformation instance is the only 
+			// way the object can move. The same instance always produces the same shape.
+			TransformedCollisionInformation shape = this.shape;
+			if (shape == null || shape.getTransformation() != transformation || 
+					shape.getInformation() != information)
+			{
+				shape = new TransformedCollisionInformation(information, transformation);
+				this.shape = shape;
+			}
+			
+			return shape;
+		}
 	}
-}
\ No newline at end of file
+}
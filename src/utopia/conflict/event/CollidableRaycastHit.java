@@ -0,0 +1,41 @@
+package utopia.conflict.event;
+
+import utopia.conflict.util.RaycastHit;
+
+/**
+ * CollidableRaycastHits are raycast hits that also tell which collidable object was hit
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+public class CollidableRaycastHit extends RaycastHit
+{
+	// ATTRIBUTES	--------------------------
+	
+	private final Collidable target;
+	
+	
+	// CONSTRUCTOR	--------------------------
+	
+	/**
+	 * Creates a new hit
+	 * @param target The object that was hit
+	 * @param hit The point where the ray hit the object's collision shape
+	 */
+	public CollidableRaycastHit(Collidable target, RaycastHit hit)
+	{
+		super(hit);
+		
+		this.target = target;
+	}
+
+
+	// ACCESSORS	--------------------------
+	
+	/**
+	 * @return The object that was hit
+	 */
+	public Collidable getTarget()
+	{
+		return this.target;
+	}
+}
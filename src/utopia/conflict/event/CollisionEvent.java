@@ -17,8 +17,9 @@ public class CollisionEvent
 	
 	private Collidable target;
 	private Vector3D mtv;
-	private double duration;
+	private double duration, contactTime;
 	private List<Vector3D> collisionPoints;
+	private CollisionEventType type;
 	
 	
 	// CONSTRUCTOR	--------------------------
@@ -36,12 +37,32 @@ public class CollisionEvent
 	 */
 	public CollisionEvent(Collidable target, Vector3D mtv, List<Vector3D> collisionPoints, 
 			double duration)
+	{
+		this(target, mtv, collisionPoints, duration, CollisionEventType.BEGIN);
+	}
+	
+	/**
+	 * Creates a new event with the given data
+	 * @param target The object the listener collided with.
+	 * @param mtv The minimum translation vector the listener has to take in order to escape 
+	 * collision. This is only provided if either the listener or the target desires it. 
+	 * The mtv is presented from the listener's point of view. mtv.reverse() would return the 
+	 * target's point of view.
+	 * @param collisionPoints The point(s) where the collision occurred
+	 * @param duration How long the collision event took place (the amount of steps since the 
+	 * last check)
+	 * @param type Whether the collision began, persisted or ended
+	 */
+	public CollisionEvent(Collidable target, Vector3D mtv, List<Vector3D> collisionPoints, 
+			double duration, CollisionEventType type)
 	{
 		// Initializes attributes
 		this.target = target;
 		this.mtv = mtv;
 		this.duration = duration;
+		this.contactTime = duration;
 		this.collisionPoints = collisionPoints;
+		this.type = type;
 	}
 	
 	/**
@@ -53,11 +74,23 @@ public class CollisionEvent
 	 */
 	public CollisionEvent(Collidable target, CollisionData collisionData, double duration)
 	{
-		// Initializes attributes
-		this.target = target;
-		this.mtv = collisionData.getMtv();
-		this.duration = duration;
-		this.collisionPoints = collisionData.getCollisionPoints();
+		this(target, collisionData, duration, CollisionEventType.BEGIN);
+	}
+	
+	/**
+	 * Creates a new event with the given data
+	 * @param target The object the listener collided with
+	 * @param collisionData The collision data collected during the collision check operation
+	 * @param duration How long the collision event took place (the amount of steps since the 
+	 * last check)
+	 * @param type Whether the collision began or persisted
+	 */
+	public CollisionEvent(Collidable target, CollisionData collisionData, double duration, 
+			CollisionEventType type)
+	{
+		this(target, collisionData.getMtv(), collisionData.getCollisionPoints(), duration, 
+				type);
+		this.contactTime = duration * collisionData.getTimeOfImpact();
 	}
 	
 	
@@ -101,6 +134,16 @@ public class CollisionEvent
 		return this.duration;
 	}
 	
+	/**
+	 * @return How far into the step the objects came into contact, between 0 and the 
+	 * duration. This is only known when continuous collision detection is used, otherwise 
+	 * the contact is assumed to occur at the end of the step.
+	 */
+	public double getContactTime()
+	{
+		return this.contactTime;
+	}
+	
 	/**
 	 * @return The points where the collision occurred (absolute). May be null if the collision 
 	 * points were not requested.
@@ -110,6 +153,15 @@ public class CollisionEvent
 		return this.collisionPoints;
 	}
 	
+	/**
+	 * @return Whether the collision began, persisted or ended. Events created without a 
+	 * type are begin events.
+	 */
+	public CollisionEventType getType()
+	{
+		return this.type;
+	}
+	
 	
 	// OTHER METHODS	-----------------------
 	
@@ -0,0 +1,25 @@
+package utopia.conflict.event;
+
+/**
+ * These are the different phases of a contact between a collision listener and a collidable 
+ * object. Each collision event has one of these types.
+ *
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+public enum CollisionEventType
+{
+	/**
+	 * The objects started colliding during the last step
+	 */
+	BEGIN, 
+	/**
+	 * The objects were already colliding during the previous step and still collide
+	 */
+	PERSIST, 
+	/**
+	 * The objects collided during the previous step but don't collide anymore. End events 
+	 * don't contain a minimum translation vector or collision points.
+	 */
+	END;
+}
@@ -1,13 +1,31 @@
 package utopia.conflict.event;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import utopia.conflict.util.CollisionCheck;
+import utopia.conflict.util.CollisionData;
+import utopia.conflict.util.PolygonCollisionAlgorithm;
+import utopia.conflict.util.SupportCache;
 import utopia.genesis.event.Actor;
 import utopia.genesis.event.ActorHandler;
+import utopia.genesis.util.Transformation;
+import utopia.genesis.util.Vector3D;
 import utopia.inception.handling.Handler;
 import utopia.inception.handling.HandlerType;
 
 /**
  * CollisionHandlers inform collision listeners about collision events. They also keep track 
- * of all the collidables those listeners can collide with.
+ * of all the collidables those listeners can collide with. The handler remembers which 
+ * objects each listener is in contact with, so that the listeners can be informed when 
+ * collisions begin, persist and end. The collision checks may also be performed in parallel.
  * @author Mikko Hilpinen
  * @since 21.12.2014
  */
@@ -17,6 +35,14 @@ public class CollisionHandler extends Handler<CollisionListener> implements Acto
 	
 	private CollidableHandler collidableHandler;
 	private double lastDuration;
+	private final Map<CollisionListener, ContactSet> contacts = new HashMap<>();
+	private int stepIndex = 0;
+	private boolean symmetricPairChecking = false;
+	private ForkJoinPool checkPool = null;
+	private boolean continuousDetection = false;
+	private PolygonCollisionAlgorithm polygonAlgorithm = PolygonCollisionAlgorithm.SAT;
+	private boolean supportCaching = false;
+	private List<CollisionListener> gatheredListeners = null;
 	
 	
 	// CONSTRUCTOR	---------------------------
@@ -47,6 +73,136 @@ public class CollisionHandler extends Handler<CollisionListener> implements Acto
 	}
 	
 	
+	// GETTERS & SETTERS	--------------------
+	
+	/**
+	 * @return Is each pair of collision listeners checked only once per step
+	 * @see #setSymmetricPairChecking(boolean)
+	 */
+	public boolean usesSymmetricPairChecking()
+	{
+		return this.symmetricPairChecking;
+	}
+	
+	/**
+	 * Changes whether pairs of collision listeners should be checked only once per step. 
+	 * When two listeners are interested in each other, the collision is checked when the 
+	 * first listener is handled and the same result is delivered to the second listener 
+	 * with the mtv reversed. Both listeners then see the collision as it was before either 
+	 * one of them reacted to it. Disabled by default.
+	 * @param symmetricPairChecking Should each pair of listeners be checked only once
+	 */
+	public void setSymmetricPairChecking(boolean symmetricPairChecking)
+	{
+		this.symmetricPairChecking = symmetricPairChecking;
+	}
+	
+	/**
+	 * @return Are the collision checks performed in parallel
+	 * @see #setParallelChecking(ForkJoinPool)
+	 */
+	public boolean usesParallelChecking()
+	{
+		return this.checkPool != null;
+	}
+	
+	/**
+	 * Changes whether the collision checks should be performed in parallel. The common 
+	 * fork join pool is used for the checks.
+	 * @param parallelChecking Should the collision checks be performed in parallel
+	 * @see #setParallelChecking(ForkJoinPool)
+	 */
+	public void setParallelChecking(boolean parallelChecking)
+	{
+		setParallelChecking(parallelChecking ? ForkJoinPool.commonPool() : null);
+	}
+	
+	/**
+	 * Changes the pool used for checking collisions in parallel. In parallel mode, the 
+	 * candidates of all listeners are collected first and then checked concurrently in the 
+	 * pool. The collision events are delivered afterwards on the stepping thread, in the 
+	 * same order as the listeners and their candidates were collected. Since no events are 
+	 * delivered during the checks, all listeners see the collisions as they were at the 
+	 * beginning of the step. Disabled by default.
+	 * @param checkPool The pool used for the collision checks. Null if the checks should be 
+	 * performed sequentially.
+	 */
+	public void setParallelChecking(ForkJoinPool checkPool)
+	{
+		this.checkPool = checkPool;
+	}
+	
+	/**
+	 * @return Is continuous collision detection used
+	 * @see #setContinuousCollisionDetection(boolean)
+	 */
+	public boolean usesContinuousCollisionDetection()
+	{
+		return this.continuousDetection;
+	}
+	
+	/**
+	 * Changes whether continuous collision detection should be used. In continuous mode, 
+	 * the movement of each object between the steps is taken into account, so that fast 
+	 * objects don't pass through thin objects between two steps. The movement is 
+	 * considered a straight line between the object's positions on the two steps. When 
+	 * the objects passed through each other during the step, the mtv moves the listener 
+	 * back to where the contact began and no collision points are calculated. The collision 
+	 * events tell when the contact began with {@link CollisionEvent#getContactTime()}. This 
+	 * also makes the collidable handler use swept bounds. Disabled by default.
+	 * @param continuousDetection Should continuous collision detection be used
+	 * @see CollidableHandler#setSweptBounds(boolean)
+	 */
+	public void setContinuousCollisionDetection(boolean continuousDetection)
+	{
+		this.continuousDetection = continuousDetection;
+		this.collidableHandler.setSweptBounds(continuousDetection);
+	}
+	
+	/**
+	 * @return The algorithm used for checking collisions between polygons
+	 */
+	public PolygonCollisionAlgorithm getPolygonCollisionAlgorithm()
+	{
+		return this.polygonAlgorithm;
+	}
+	
+	/**
+	 * Changes the algorithm used for checking collisions between polygons. SAT is used by 
+	 * default.
+	 * @param polygonAlgorithm The algorithm used for checking collisions between polygons
+	 */
+	public void setPolygonCollisionAlgorithm(PolygonCollisionAlgorithm polygonAlgorithm)
+	{
+		this.polygonAlgorithm = polygonAlgorithm;
+	}
+	
+	/**
+	 * @return Are the extreme vertices found during the collision checks remembered between 
+	 * the steps
+	 * @see #setSupportCaching(boolean)
+	 */
+	public boolean usesSupportCaching()
+	{
+		return this.supportCaching;
+	}
+	
+	/**
+	 * Changes whether the extreme vertices found during the collision checks should be 
+	 * remembered between the steps. The handler then keeps a support cache for each pair 
+	 * of a listener and a target that were checked on the previous step, and the extreme 
+	 * vertices of large polygons are searched starting from the previous ones. This is 
+	 * useful when the collidables have polygons with many vertices, like circles converted 
+	 * into polygons. Disabled by default.
+	 * @param supportCaching Should the extreme vertices be remembered between the steps
+	 * @see CollisionCheck#HILL_CLIMBING_VERTEX_THRESHOLD
+	 */
+	public void setSupportCaching(boolean supportCaching)
+	{
+		this.supportCaching = supportCaching;
+	}
+	
+	
 	// IMPLEMENTED METHODS	--------------------
 
 	@Override
@@ -55,9 +211,26 @@ public class CollisionHandler extends Handler<CollisionListener> implements Acto
 		// Only works if the collidableHandler is still alive
 		if (!this.collidableHandler.getIsDeadStateOperator().getState())
 		{
+			// Updates the collidable positions before checking for collisions
+			this.collidableHandler.updateBroadPhase();
+			
 			// Checks for collisions
 			this.lastDuration = duration;
-			handleObjects(true);
+			this.stepIndex ++;
+			if (usesParallelChecking())
+				checkCollisionsInParallel();
+			else if (usesSymmetricPairChecking())
+				checkSymmetricCollisions();
+			else
+				handleObjects(true);
+			
+			// Forgets the contacts of the listeners that are no longer handled
+			Iterator<ContactSet> iterator = this.contacts.values().iterator();
+			while (iterator.hasNext())
+			{
+				if (iterator.next().lastStepIndex != this.stepIndex)
+					iterator.remove();
+			}
 		}
 	}
 
@@ -69,9 +242,435 @@ public class CollisionHandler extends Handler<CollisionListener> implements Acto
 
 	@Override
 	protected boolean handleObject(CollisionListener h)
-	{	
-		// Checks for collisions with the collidables
-		this.collidableHandler.checkForCollisionsWith(h, this.lastDuration);
+	{
+		// The listeners may be collected before checking any collisions
+		if (this.gatheredListeners != null)
+			this.gatheredListeners.add(h);
+		else
+			deliverResults(prepareChecksFor(h, null, null, null));
+		
 		return true;
 	}
+	
+	
+	// OTHER METHODS	------------------------
+	
+	private void checkSymmetricCollisions()
+	{
+		List<CollisionListener> listeners = gatherListeners();
+		Map<Collidable, CollisionListener> laterListeners = mapByCollidable(listeners);
+		Map<CollisionListener, Map<Collidable, PairCheck>> sharedChecks = new HashMap<>();
+		
+		for (CollisionListener listener : listeners)
+		{
+			// Listeners may die in response to earlier collision events
+			if (!listener.getIsDeadStateOperator().getState())
+				deliverResults(prepareChecksFor(listener, laterListeners, sharedChecks, null));
+		}
+	}
+	
+	private void checkCollisionsInParallel()
+	{
+		List<CollisionListener> listeners = gatherListeners();
+		Map<Collidable, CollisionListener> laterListeners = null;
+		Map<CollisionListener, Map<Collidable, PairCheck>> sharedChecks = null;
+		if (usesSymmetricPairChecking())
+		{
+			laterListeners = mapByCollidable(listeners);
+			sharedChecks = new HashMap<>();
+		}
+		
+		// Collects the checks of all listeners first
+		List<ListenerChecks> listenerChecks = new ArrayList<>(listeners.size());
+		List<PairCheck> checks = new ArrayList<>();
+		for (CollisionListener listener : listeners)
+		{
+			listenerChecks.add(prepareChecksFor(listener, laterListeners, sharedChecks, 
+					checks));
+		}
+		
+		// Performs the checks concurrently
+		if (!checks.isEmpty())
+			this.checkPool.invoke(new CheckAction(checks, 0, checks.size()));
+		
+		// Informs the listeners in order
+		for (ListenerChecks results : listenerChecks)
+		{
+			if (!results.listener.getIsDeadStateOperator().getState())
+				deliverResults(results);
+		}
+	}
+	
+	private List<CollisionListener> gatherListeners()
+	{
+		this.gatheredListeners = new ArrayList<>();
+		handleObjects(true);
+		List<CollisionListener> listeners = this.gatheredListeners;
+		this.gatheredListeners = null;
+		
+		return listeners;
+	}
+	
+	private static Map<Collidable, CollisionListener> mapByCollidable(
+			List<CollisionListener> listeners)
+	{
+		Map<Collidable, CollisionListener> listenersByCollidable = new HashMap<>();
+		for (CollisionListener listener : listeners)
+		{
+			Collidable collidable = listener.getCollisionListeningInformation().getCollidable();
+			if (collidable != null)
+				listenersByCollidable.put(collidable, listener);
+		}
+		
+		return listenersByCollidable;
+	}
+	
+	/*
+	 * Finds the candidates of the listener and creates the checks for them. If the 
+	 * later listeners are provided, each pair of listeners is checked by the listener that 
+	 * is handled first and the check is shared with the other listener. If the check list 
+	 * is provided, the created checks are added to it and not performed yet.
+	 */
+	private ListenerChecks prepareChecksFor(CollisionListener listener, 
+			Map<Collidable, CollisionListener> laterListeners, 
+			Map<CollisionListener, Map<Collidable, PairCheck>> sharedChecks, 
+			List<PairCheck> uncheckedPairs)
+	{
+		CollisionListeningInformation listeningInformation = 
+				listener.getCollisionListeningInformation();
+		Collidable user = listeningInformation.getCollidable();
+		ListenerChecks results = new ListenerChecks(listener, this.contacts.get(listener));
+		
+		// This listener is no longer handled later
+		if (laterListeners != null && user != null && laterListeners.get(user) == listener)
+			laterListeners.remove(user);
+		
+		// Some of the checks may have been created by the other listeners already
+		Map<Collidable, PairCheck> knownChecks = sharedChecks == null ? null : 
+				sharedChecks.remove(listener);
+		
+		List<Collidable> candidates = new ArrayList<>();
+		TransformedCollisionInformation userShape = 
+				this.collidableHandler.findCandidatesFor(listener, candidates);
+		if (userShape == null)
+			return results;
+		
+		results.hasShape = true;
+		Vector3D userMovement = usesContinuousCollisionDetection() ? 
+				getMovementOf(user, userShape) : null;
+		for (Collidable target : candidates)
+		{
+			PairCheck known = knownChecks == null ? null : knownChecks.remove(target);
+			if (known != null)
+			{
+				results.checks.add(new PairCheck(target, known));
+				continue;
+			}
+			
+			// Existing contacts only need the details if they are delivered to the listener
+			boolean detailsWanted = detailsWanted(listeningInformation, results.previous, 
+					target);
+			boolean mtvWanted = detailsWanted && listeningInformation.mtvShouldBeCalculated();
+			boolean pointsWanted = detailsWanted && 
+					listeningInformation.collisionPointsShouldBeCalculated();
+			
+			// If the target is a listener handled later, the check is shared with it
+			CollisionListener other = laterListeners == null ? null : 
+					laterListeners.get(target);
+			if (other != null)
+			{
+				CollisionListeningInformation otherInformation = 
+						other.getCollisionListeningInformation();
+				boolean otherDetailsWanted = detailsWanted(otherInformation, 
+						this.contacts.get(other), user);
+				mtvWanted |= otherDetailsWanted && otherInformation.mtvShouldBeCalculated();
+				pointsWanted |= otherDetailsWanted && 
+						otherInformation.collisionPointsShouldBeCalculated();
+			}
+			
+			TransformedCollisionInformation targetShape = 
+					this.collidableHandler.getShapeOf(target);
+			PairCheck check = new PairCheck(target, userShape, targetShape, mtvWanted, 
+					pointsWanted, this.polygonAlgorithm);
+			
+			// The support cache of the pair is kept as long as the pair is checked each step
+			if (usesSupportCaching())
+			{
+				SupportCache cache = results.previous == null ? null : 
+						results.previous.supportCaches.get(target);
+				if (cache == null)
+					cache = new SupportCache();
+				check.supportCache = cache;
+				results.supportCaches.put(target, cache);
+			}
+			
+			// In continuous mode, the movement is checked in the target's frame of reference
+			if (userMovement != null)
+			{
+				Vector3D displacement = userMovement.minus(getMovementOf(target, targetShape));
+				if (displacement.getX() != 0 || displacement.getY() != 0)
+					check.displacement = displacement;
+			}
+			
+			if (uncheckedPairs == null)
+				check.run();
+			else
+				uncheckedPairs.add(check);
+			results.checks.add(check);
+			
+			if (other != null)
+			{
+				Map<Collidable, PairCheck> otherChecks = sharedChecks.get(other);
+				if (otherChecks == null)
+				{
+					otherChecks = new HashMap<>();
+					sharedChecks.put(other, otherChecks);
+				}
+				otherChecks.put(user, check);
+			}
+		}
+		
+		// The collisions found by the other listener are delivered even if the objects 
+		// have moved apart since
+		if (knownChecks != null)
+		{
+			for (Map.Entry<Collidable, PairCheck> known : knownChecks.entrySet())
+			{
+				if (this.collidableHandler.acceptsCollisionBetween(listener, known.getKey()))
+					results.checks.add(new PairCheck(known.getKey(), known.getValue()));
+			}
+		}
+		
+		return results;
+	}
+	
+	private void deliverResults(ListenerChecks results)
+	{
+		CollisionListener listener = results.listener;
+		CollisionListeningInformation listeningInformation = 
+				listener.getCollisionListeningInformation();
+		ContactSet previous = results.previous;
+		ContactSet current = new ContactSet(this.stepIndex, results.supportCaches);
+		
+		for (PairCheck check : results.checks)
+		{
+			CollisionData data = check.getData();
+			if (!data.collided())
+				continue;
+			
+			// The objects that were already in contact cause persist events instead of 
+			// begin events
+			current.targets.add(check.target);
+			CollisionEventType type = previous != null && 
+					previous.targets.contains(check.target) ? CollisionEventType.PERSIST : 
+					CollisionEventType.BEGIN;
+			if (listeningInformation.isInterestedInEventType(type))
+				listener.onCollisionEvent(new CollisionEvent(check.target, data, 
+						this.lastDuration, type));
+		}
+		
+		// The listener may have moved in response to the events
+		if (results.hasShape)
+			this.collidableHandler.refreshListener(listener);
+		
+		// Informs the listener about the contacts that ended
+		if (previous != null && 
+				listeningInformation.isInterestedInEventType(CollisionEventType.END))
+		{
+			for (Collidable target : previous.targets)
+			{
+				if (!current.targets.contains(target))
+					listener.onCollisionEvent(new CollisionEvent(target, null, null, 
+							this.lastDuration, CollisionEventType.END));
+			}
+		}
+		
+		if (current.targets.isEmpty() && current.supportCaches.isEmpty())
+			this.contacts.remove(listener);
+		else
+			this.contacts.put(listener, current);
+	}
+	
+	private Vector3D getMovementOf(Collidable collidable, TransformedCollisionInformation shape)
+	{
+		// Objects that weren't indexed on the previous step haven't moved
+		Transformation previous = this.collidableHandler.getPreviousTransformationOf(
+				collidable);
+		Transformation current = shape.getTransformation();
+		if (previous == null || current == null)
+			return new Vector3D(0, 0);
+		else
+			return current.getPosition().minus(previous.getPosition());
+	}
+	
+	private static boolean detailsWanted(CollisionListeningInformation listeningInformation, 
+			ContactSet contacts, Collidable target)
+	{
+		return contacts == null || !contacts.targets.contains(target) || 
+				listeningInformation.isInterestedInEventType(CollisionEventType.PERSIST);
+	}
+	
+	
+	// NESTED CLASSES	------------------------
+	
+	private static class ContactSet
+	{
+		// ATTRIBUTES	------------------------
+		
+		private final Set<Collidable> targets = new HashSet<>();
+		private final Map<Collidable, SupportCache> supportCaches;
+		private final int lastStepIndex;
+		
+		
+		// CONSTRUCTOR	------------------------
+		
+		public ContactSet(int stepIndex, Map<Collidable, SupportCache> supportCaches)
+		{
+			this.lastStepIndex = stepIndex;
+			this.supportCaches = supportCaches;
+		}
+	}
+	
+	private static class ListenerChecks
+	{
+		// ATTRIBUTES	------------------------
+		
+		private final CollisionListener listener;
+		private final ContactSet previous;
+		private final List<PairCheck> checks = new ArrayList<>();
+		private final Map<Collidable, SupportCache> supportCaches = new HashMap<>();
+		private boolean hasShape = false;
+		
+		
+		// CONSTRUCTOR	------------------------
+		
+		public ListenerChecks(CollisionListener listener, ContactSet previous)
+		{
+			this.listener = listener;
+			this.previous = previous;
+		}
+	}
+	
+	private static class PairCheck
+	{
+		// ATTRIBUTES	------------------------
+		
+		private final Collidable target;
+		private final TransformedCollisionInformation first, second;
+		private final boolean mtvWanted, pointsWanted;
+		private final PolygonCollisionAlgorithm algorithm;
+		private final PairCheck mirrored;
+		private Vector3D displacement = null;
+		private SupportCache supportCache = null;
+		private CollisionData data = null;
+		
+		
+		// CONSTRUCTOR	------------------------
+		
+		public PairCheck(Collidable target, TransformedCollisionInformation first, 
+				TransformedCollisionInformation second, boolean mtvWanted, 
+				boolean pointsWanted, PolygonCollisionAlgorithm algorithm)
+		{
+			this.target = target;
+			this.first = first;
+			this.second = second;
+			this.mtvWanted = mtvWanted;
+			this.pointsWanted = pointsWanted;
+			this.algorithm = algorithm;
+			this.mirrored = null;
+		}
+		
+		// Uses the results of a check made from the other listener's point of view
+		public PairCheck(Collidable target, PairCheck mirrored)
+		{
+			this.target = target;
+			this.first = null;
+			this.second = null;
+			this.mtvWanted = false;
+			this.pointsWanted = false;
+			this.algorithm = null;
+			this.mirrored = mirrored;
+		}
+		
+		
+		// OTHER METHODS	--------------------
+		
+		public void run()
+		{
+			this.data = CollisionCheck.checkCollisions(this.first, this.second, 
+					this.mtvWanted, this.pointsWanted, this.algorithm, this.supportCache);
+			if (this.displacement == null)
+				return;
+			
+			// Finds when the contact began during the step
+			double timeOfImpact = CollisionCheck.findTimeOfImpact(this.first, this.second, 
+					this.displacement);
+			if (timeOfImpact < 0)
+				return;
+			
+			if (this.data.collided())
+				this.data = this.data.withTimeOfImpact(timeOfImpact);
+			// Objects that were in contact at the beginning and have moved apart since didn't 
+			// collide during the step
+			else if (timeOfImpact == 0)
+				return;
+			// If the objects passed through each other, the listener is moved back to the 
+			// point of contact
+			else
+				this.data = new CollisionData(true, this.mtvWanted ? 
+						this.displacement.times(timeOfImpact - 1) : null, 
+						this.pointsWanted ? new ArrayList<>() : null, timeOfImpact);
+		}
+		
+		public CollisionData getData()
+		{
+			if (this.mirrored == null)
+				return this.data;
+			else
+				return this.mirrored.data.reversed();
+		}
+	}
+	
+	private static class CheckAction extends RecursiveAction
+	{
+		// ATTRIBUTES	------------------------
+		
+		private static final long serialVersionUID = 1L;
+		private static final int THRESHOLD = 32;
+		
+		private final List<PairCheck> checks;
+		private final int start, end;
+		
+		
+		// CONSTRUCTOR	------------------------
+		
+		public CheckAction(List<PairCheck> checks, int start, int end)
+		{
+			this.checks = checks;
+			this.start = start;
+			this.end = end;
+		}
+		
+		
+		// IMPLEMENTED METHODS	----------------
+		
+		@Override
+		protected void compute()
+		{
+			// Small enough ranges are checked directly, larger ones are split in half
+			if (this.end - this.start <= THRESHOLD)
+			{
+				for (int i = this.start; i < this.end; i++)
+				{
+					this.checks.get(i).run();
+				}
+			}
+			else
+			{
+				int middle = (this.start + this.end) / 2;
+				invokeAll(new CheckAction(this.checks, this.start, middle), 
+						new CheckAction(this.checks, middle, this.end));
+			}
+		}
+	}
 }
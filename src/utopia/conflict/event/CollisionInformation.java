@@ -2,8 +2,13 @@ package utopia.conflict.event;
 
 import java.awt.Graphics2D;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import utopia.conflict.util.Bounds;
+import utopia.conflict.util.BroadPhase;
 import utopia.conflict.util.Circle;
 import utopia.conflict.util.Polygon;
 import utopia.genesis.util.HelpMath;
@@ -19,16 +24,36 @@ public class CollisionInformation
 {
 	// ATTRIBUTES	----------------------------
 	
+	/**
+	 * The highest level of detail used for circle polygons. Each level doubles the amount 
+	 * of vertices, starting from 4 vertices at level 0, so the most detailed polygons have 
+	 * 1024 vertices.
+	 */
+	public static final int MAX_CIRCLE_DETAIL_LEVEL = 8;
+	
 	// TODO: Add support for circles and "brach's bubble form"
 	
 	private List<Circle> circles = null;
 	private List<Polygon> polygons = null;
 	private Class<?>[] supportedListeners = null;
-	private Polygon boundingBox = null;
+	// The decisions are cached from every thread that steps the world
+	private final Map<Class<?>, Boolean> listenerDecisions = new ConcurrentHashMap<>();
+	private long collisionLayers = BroadPhase.ALL_LAYERS;
+	private long listenerMask = BroadPhase.ALL_LAYERS;
+	private volatile Polygon boundingBox = null;
+	private volatile Bounds bounds = null;
+	private volatile Circle boundingCircle = null;
 	private boolean usesBoundingBox = false;
+	private boolean isStatic = false;
 	
 	private int minCircleVertexAmount = 8;
 	private int maxcircleEdgeLength = -1;
+	private double circleTolerance = -1;
+	
+	// The circle polygons are created when first needed. Each circle has its own set of 
+	// detail levels when a tolerance is used.
+	private volatile List<Polygon> circlePolygons = null;
+	private volatile Polygon[][] circleDetailLevels = null;
 	
 	
 	// CONSTRUCTOR	-----------------------------
@@ -146,20 +171,76 @@ public class CollisionInformation
 	}
 	
 	/**
-	 * @return The collision information's circles transformed into polygon format
+	 * @return The collision information's circles transformed into polygon format. The 
+	 * polygons are created once and then kept. The returned list can't be modified.
+	 * @see #getCirclePolygons(double)
 	 */
 	public List<Polygon> getCirclePolygons()
 	{
-		List<Polygon> polygons = new ArrayList<>();
-		if (usesCircles())
+		return getCirclePolygons(1);
+	}
+	
+	/**
+	 * Finds the collision information's circles in polygon format when the information is 
+	 * scaled. If a circle tolerance is used, circles that are scaled down use fewer 
+	 * vertices. Each level of detail is created once and then kept.
+	 * @param scaling How much the information is scaled at most when it is transformed 
+	 * into absolute space
+	 * @return The circles in polygon format, in the same order as the circles. The 
+	 * returned list can't be modified.
+	 * @see #setCircleTolerance(double)
+	 */
+	public List<Polygon> getCirclePolygons(double scaling)
+	{
+		if (!usesCircles())
+			return new ArrayList<>();
+		
+		// Without a tolerance, the same polygons are used at every scale
+		double tolerance = getCircleTolerance();
+		if (tolerance < 0)
 		{
-			for (Circle circle : this.circles)
+			if (this.circlePolygons == null)
+			{
+				List<Polygon> polygons = new ArrayList<>(this.circles.size());
+				for (Circle circle : this.circles)
+				{
+					polygons.add(circle.toPolygon(getMinCircleVertexAmount(), 
+							getMaxCircleEdgeLength()));
+				}
+				this.circlePolygons = Collections.unmodifiableList(polygons);
+			}
+			
+			return this.circlePolygons;
+		}
+		
+		Polygon[][] detailLevels = this.circleDetailLevels;
+		if (detailLevels == null)
+		{
+			detailLevels = new Polygon[this.circles.size()][MAX_CIRCLE_DETAIL_LEVEL + 1];
+			this.circleDetailLevels = detailLevels;
+		}
+		
+		// The tolerance is in absolute space, so it is scaled into relative space
+		double relativeTolerance = scaling > 0 ? tolerance / scaling : tolerance;
+		List<Polygon> polygons = new ArrayList<>(this.circles.size());
+		for (int i = 0; i < this.circles.size(); i++)
+		{
+			Circle circle = this.circles.get(i);
+			
+			// Each level doubles the amount of vertices, starting from 4
+			int vertexAmount = circle.getVertexAmountFor(relativeTolerance);
+			int level = 0;
+			while (level < MAX_CIRCLE_DETAIL_LEVEL && (4 << level) < vertexAmount)
 			{
-				polygons.add(circle.toPolygon(getMinCircleVertexAmount(), getMaxCircleEdgeLength()));
+				level ++;
 			}
+			
+			if (detailLevels[i][level] == null)
+				detailLevels[i][level] = circle.toPolygon(4 << level, -1);
+			polygons.add(detailLevels[i][level]);
 		}
 		
-		return polygons;
+		return Collections.unmodifiableList(polygons);
 	}
 	
 	/**
@@ -207,6 +288,35 @@ public class CollisionInformation
 		return this.maxcircleEdgeLength;
 	}
 	
+	/**
+	 * @return How far the circle polygons' edges may be from the circles' edges in absolute 
+	 * space. Negative if the minimum vertex amount and the maximum edge length are used 
+	 * instead.
+	 */
+	public double getCircleTolerance()
+	{
+		return this.circleTolerance;
+	}
+	
+	/**
+	 * Changes how accurately the circles are transformed into polygons. When a tolerance is 
+	 * used, the amount of vertices depends on how large the circles are in absolute space, 
+	 * so that circles that are scaled down use fewer vertices. The minimum vertex amount 
+	 * and the maximum edge length are then ignored. Not used by default. The tolerance 
+	 * should be set before the information is used in collision checks or added to a 
+	 * {@link CollidableHandler}. Shapes that have already been transformed 
+	 * ({@link TransformedCollisionInformation}), including the shapes the handler keeps 
+	 * for static objects, keep the circle polygons they were created with.
+	 * @param tolerance How far the circle polygons' edges may be from the circles' edges in 
+	 * absolute space. Use a negative number to use the minimum vertex amount and the 
+	 * maximum edge length instead.
+	 */
+	public void setCircleTolerance(double tolerance)
+	{
+		this.circleTolerance = tolerance;
+		this.circleDetailLevels = null;
+	}
+	
 	/**
 	 * @return The bounding box drawn around the collision shape(s). All collidable area 
 	 * fits inside this bounding box.
@@ -242,6 +352,69 @@ public class CollisionInformation
 		return this.boundingBox;
 	}
 	
+	/**
+	 * @return The bounds around the collision shape(s) in relative space. These match the 
+	 * bounding box but are cheaper to use.
+	 */
+	public Bounds getBounds()
+	{
+		if (this.bounds == null)
+			this.bounds = Bounds.around(getBoundingBox());
+		
+		return this.bounds;
+	}
+	
+	/**
+	 * @return A circle around the collision shape(s) in relative space. All collidable area 
+	 * fits inside this circle. Unlike the bounding box, the circle stays tight when the 
+	 * information is rotated.
+	 */
+	public Circle getBoundingCircle()
+	{
+		if (this.boundingCircle == null)
+		{
+			// Finds the smallest circle around the polygon vertices and circle centers
+			List<? extends Polygon> polygons = getPolygons();
+			List<? extends Circle> circles = getCircles();
+			int pointAmount = circles.size();
+			for (Polygon polygon : polygons)
+			{
+				pointAmount += polygon.getVertexAmount();
+			}
+			
+			double[] xs = new double[pointAmount];
+			double[] ys = new double[pointAmount];
+			int index = 0;
+			for (Polygon polygon : polygons)
+			{
+				for (int i = 0; i < polygon.getVertexAmount(); i++)
+				{
+					xs[index] = polygon.getX(i);
+					ys[index] = polygon.getY(i);
+					index ++;
+				}
+			}
+			for (Circle circle : circles)
+			{
+				xs[index] = circle.getCenter().getX();
+				ys[index] = circle.getCenter().getY();
+				index ++;
+			}
+			
+			// Then extends the circle to contain the circles as well
+			Circle boundingCircle = Circle.around(xs, ys);
+			double radius = boundingCircle.getRadius();
+			for (Circle circle : circles)
+			{
+				radius = Math.max(radius, HelpMath.pointDistance2D(boundingCircle.getCenter(), 
+						circle.getCenter()) + circle.getRadius());
+			}
+			this.boundingCircle = boundingCircle.withRadius(radius);
+		}
+		
+		return this.boundingCircle;
+	}
+	
 	/**
 	 * @return Should bounding box be used when checking for collision with this information. 
 	 * Using bounding box is recommended for complex shapes
@@ -251,6 +424,70 @@ public class CollisionInformation
 		return this.usesBoundingBox;
 	}
 	
+	/**
+	 * @return Is the object using this information static. Static objects don't move, 
+	 * so their shapes only need to be transformed into absolute space once. Static objects 
+	 * are never checked for collisions against other static objects.
+	 */
+	public boolean isStatic()
+	{
+		return this.isStatic;
+	}
+	
+	/**
+	 * Changes whether the object using this information is static. Static objects should 
+	 * never move. The collision shapes of a static object are transformed into absolute 
+	 * space only once and they are kept separate from the moving objects. Non-static by 
+	 * default.
+	 * @param isStatic Is the object using this information static
+	 */
+	public void setStatic(boolean isStatic)
+	{
+		this.isStatic = isStatic;
+	}
+	
+	/**
+	 * @return The collision layers the object using this information belongs to. Each bit 
+	 * represents a single layer.
+	 */
+	public long getCollisionLayers()
+	{
+		return this.collisionLayers;
+	}
+	
+	/**
+	 * Changes the collision layers the object using this information belongs to. Listeners 
+	 * only receive events concerning this object if their collision mask contains at least 
+	 * one of these layers. By default the object belongs to all layers.
+	 * @param collisionLayers The collision layers of the object. Each bit represents a 
+	 * single layer.
+	 * @see CollisionListeningInformation#setCollisionMask(long)
+	 */
+	public void setCollisionLayers(long collisionLayers)
+	{
+		this.collisionLayers = collisionLayers;
+	}
+	
+	/**
+	 * @return The listener layers that can receive collision events concerning this object
+	 */
+	public long getListenerMask()
+	{
+		return this.listenerMask;
+	}
+	
+	/**
+	 * Changes the listener layers that can receive collision events concerning this object. 
+	 * By default listeners on all layers can receive the events.
+	 * @param listenerMask The listener layers that can receive the events. Each bit 
+	 * represents a single layer.
+	 * @see CollisionListeningInformation#setListenerLayers(long)
+	 */
+	public void setListenerMask(long listenerMask)
+	{
+		this.listenerMask = listenerMask;
+	}
+	
 	
 	// OTHER METHODS	--------------------------
 	
@@ -286,6 +523,7 @@ public class CollisionInformation
 	public void limitSupportedListenersTo(Class<?>... supportedListeners)
 	{
 		this.supportedListeners = supportedListeners;
+		this.listenerDecisions.clear();
 	}
 	
 	/**
@@ -295,11 +533,12 @@ public class CollisionInformation
 	public void resetLimitedClasses()
 	{
 		this.supportedListeners = null;
+		this.listenerDecisions.clear();
 	}
 	
 	/**
 	 * Checks if the given object should be informed about collision events that include this 
-	 * information.
+	 * information. The decision is made only once for each class.
 	 * @param o The object that may be interested about collision events
 	 * @return Should the object be informed about events concerning this information.
 	 */
@@ -308,13 +547,34 @@ public class CollisionInformation
 		if (this.supportedListeners == null)
 			return true;
 		
-		for (int i = 0; i < this.supportedListeners.length; i++)
+		Boolean decision = this.listenerDecisions.get(o.getClass());
+		if (decision == null)
 		{
-			if (this.supportedListeners[i].isInstance(o))
-				return true;
+			decision = false;
+			for (int i = 0; i < this.supportedListeners.length; i++)
+			{
+				if (this.supportedListeners[i].isInstance(o))
+				{
+					decision = true;
+					break;
+				}
+			}
+			
+			this.listenerDecisions.put(o.getClass(), decision);
 		}
 		
-		return false;
+		return decision;
+	}
+	
+	/**
+	 * Checks if a listener on the provided layers should be informed about collision events 
+	 * that include this information
+	 * @param listenerLayers The layers of the listener
+	 * @return Should the listener be informed about events concerning this information
+	 */
+	public boolean allowsCollisionEventsForLayers(long listenerLayers)
+	{
+		return (this.listenerMask & listenerLayers) != 0;
 	}
 	
 	/**
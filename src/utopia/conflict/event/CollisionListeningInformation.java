@@ -1,5 +1,11 @@
 package utopia.conflict.event;
 
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import utopia.conflict.util.BroadPhase;
+
 /**
  * CollisionCheckers make the necessary calculations to check if collidables collide with 
  * other collidables or points.
@@ -13,6 +19,12 @@ public class CollisionListeningInformation
 	private Collidable user;
 	private boolean userWantsMTV, userWantsPoints;
 	private Class<?>[] interestingClasses;
+	// Collisions may be checked on several threads at once
+	private final Map<Class<?>, Boolean> classDecisions = new ConcurrentHashMap<>();
+	private long listenerLayers = BroadPhase.ALL_LAYERS;
+	private long collisionMask = BroadPhase.ALL_LAYERS;
+	private EnumSet<CollisionEventType> interestingEventTypes = 
+			EnumSet.of(CollisionEventType.BEGIN, CollisionEventType.PERSIST);
 	
 	
 	// CONSTRUCTOR	-----------------------
@@ -62,10 +74,74 @@ public class CollisionListeningInformation
 		return this.user;
 	}
 	
+	/**
+	 * @return The listener layers the user belongs to. Each bit represents a single layer.
+	 */
+	public long getListenerLayers()
+	{
+		return this.listenerLayers;
+	}
+	
+	/**
+	 * Changes the listener layers the user belongs to. The user only receives events 
+	 * concerning objects whose listener mask contains at least one of these layers. By 
+	 * default the user belongs to all layers.
+	 * @param listenerLayers The listener layers of the user. Each bit represents a single 
+	 * layer.
+	 * @see CollisionInformation#setListenerMask(long)
+	 */
+	public void setListenerLayers(long listenerLayers)
+	{
+		this.listenerLayers = listenerLayers;
+	}
+	
+	/**
+	 * @return The collision layers the user is interested in
+	 */
+	public long getCollisionMask()
+	{
+		return this.collisionMask;
+	}
+	
+	/**
+	 * Changes the collision layers the user is interested in. Objects on other layers are 
+	 * skipped already in the broad phase. By default the user is interested in all layers.
+	 * @param collisionMask The collision layers the user is interested in. Each bit 
+	 * represents a single layer.
+	 * @see CollisionInformation#setCollisionLayers(long)
+	 */
+	public void setCollisionMask(long collisionMask)
+	{
+		this.collisionMask = collisionMask;
+	}
+	
 	
 	// OTHER METHODS	-------------------
 	
+	/**
+	 * Changes the types of collision events the user is informed about. By default the 
+	 * user is informed when a collision begins and on each step the collision persists. If 
+	 * persist events are not wanted, the collision check for objects already in contact 
+	 * is kept as simple as possible.
+	 * @param eventTypes The types of events the user should receive
+	 */
+	public void setInterestingEventTypes(CollisionEventType... eventTypes)
+	{
+		this.interestingEventTypes = EnumSet.noneOf(CollisionEventType.class);
+		for (CollisionEventType type : eventTypes)
+		{
+			this.interestingEventTypes.add(type);
+		}
+	}
 	
+	/**
+	 * @param type A collision event type
+	 * @return Should the user be informed about events of the given type
+	 */
+	public boolean isInterestedInEventType(CollisionEventType type)
+	{
+		return this.interestingEventTypes.contains(type);
+	}
 	
 	/**
 	 * Changes the set of classes this collision checker is interested in. By default the 
@@ -76,6 +152,7 @@ public class CollisionListeningInformation
 	public void limitCheckedClassesTo(Class<?>... checkedClasses)
 	{
 		this.interestingClasses = checkedClasses;
+		this.classDecisions.clear();
 	}
 	
 	/**
@@ -85,10 +162,12 @@ public class CollisionListeningInformation
 	public void resetCheckedClassesLimit()
 	{
 		this.interestingClasses = null;
+		this.classDecisions.clear();
 	}
 	
 	/**
-	 * Tells whether the collision checker should be used with the given object.
+	 * Tells whether the collision checker should be used with the given object. The 
+	 * decision is made only once for each class.
 	 * @param c The object that may be checked for collisions.
 	 * @return Should the collisions be checked for the object.
 	 */
@@ -97,13 +176,23 @@ public class CollisionListeningInformation
 		if (this.interestingClasses == null)
 			return true;
 		
-		for (int i = 0; i < this.interestingClasses.length; i++)
+		Boolean decision = this.classDecisions.get(c.getClass());
+		if (decision == null)
 		{
-			if (this.interestingClasses[i].isInstance(c))
-				return true;
+			decision = false;
+			for (int i = 0; i < this.interestingClasses.length; i++)
+			{
+				if (this.interestingClasses[i].isInstance(c))
+				{
+					decision = true;
+					break;
+				}
+			}
+			
+			this.classDecisions.put(c.getClass(), decision);
 		}
 		
-		return false;
+		return decision;
 	}
 	
 	/*
@@ -0,0 +1,474 @@
+package utopia.conflict.event;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import utopia.genesis.event.Actor;
+
+/**
+ * CollisionWorldScheduler steps multiple independent worlds on a shared set of threads, so 
+ * that each world doesn't need a thread of its own. A world is usually the collision handler 
+ * or the actor handler of a single game instance. Each world has its own step interval and 
+ * deadline. The worlds are stepped in the order their steps become due (earliest deadline 
+ * first) and only a limited amount of steps is executed at once, so a slow world can't 
+ * starve the others. A single world is never stepped concurrently with itself.
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+public class CollisionWorldScheduler
+{
+	// ATTRIBUTES	--------------------------
+	
+	private final Executor executor;
+	private final ExecutorService ownExecutor;
+	private final int maxConcurrentSteps;
+	
+	private final PriorityQueue<ScheduledWorld> dueWorlds = new PriorityQueue<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition stateChanged = this.lock.newCondition();
+	private int runningSteps = 0;
+	private int worldAmount = 0;
+	private long nextWorldIndex = 0;
+	private Thread dispatcher = null;
+	
+	
+	// CONSTRUCTOR	--------------------------
+	
+	/**
+	 * Creates a new scheduler that uses one thread for each available processor
+	 */
+	public CollisionWorldScheduler()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new scheduler that uses its own pool of threads. The threads are stopped 
+	 * when the scheduler is stopped.
+	 * @param threadAmount How many threads are used for stepping the worlds
+	 */
+	public CollisionWorldScheduler(int threadAmount)
+	{
+		if (threadAmount <= 0)
+			throw new IllegalArgumentException("Thread amount must be positive");
+		
+		this.ownExecutor = Executors.newFixedThreadPool(threadAmount, runnable ->
+		{
+			Thread thread = new Thread(runnable, "Collision world step");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor = this.ownExecutor;
+		this.maxConcurrentSteps = threadAmount;
+	}
+
+	/**
+	 * Creates a new scheduler that steps the worlds using an existing executor. The 
+	 * executor may be shared with other systems, and it may as well run each step on a 
+	 * separate virtual thread where those are available.
+	 * @param executor The executor that runs the world steps
+	 * @param maxConcurrentSteps How many steps may be executed at once. Usually the amount 
+	 * of threads available to the executor.
+	 */
+	public CollisionWorldScheduler(Executor executor, int maxConcurrentSteps)
+	{
+		if (maxConcurrentSteps <= 0)
+			throw new IllegalArgumentException("Concurrent step amount must be positive");
+		
+		this.executor = executor;
+		this.ownExecutor = null;
+		this.maxConcurrentSteps = maxConcurrentSteps;
+	}
+
+
+	// ACCESSORS	--------------------------
+	
+	/**
+	 * @return How many worlds are currently scheduled
+	 */
+	public int getWorldAmount()
+	{
+		this.lock.lock();
+		try
+		{
+			return this.worldAmount;
+		}
+		finally
+		{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return Is the scheduler currently stepping the worlds
+	 */
+	public boolean isRunning()
+	{
+		this.lock.lock();
+		try
+		{
+			return this.dispatcher != null;
+		}
+		finally
+		{
+			this.lock.unlock();
+		}
+	}
+
+
+	// OTHER METHODS	----------------------
+	
+	/**
+	 * Adds a new world to the scheduler. The world must complete each step within a single 
+	 * step interval.
+	 * @param world The world that is stepped. Usually a collision handler or an actor 
+	 * handler. The world is removed from the scheduler once it dies.
+	 * @param stepIntervalMillis How often the world is stepped (milliseconds)
+	 * @return The scheduled world
+	 */
+	public ScheduledWorld addWorld(Actor world, long stepIntervalMillis)
+	{
+		return addWorld(world, stepIntervalMillis, stepIntervalMillis);
+	}
+
+	/**
+	 * Adds a new world to the scheduler
+	 * @param world The world that is stepped. Usually a collision handler or an actor 
+	 * handler. The world is removed from the scheduler once it dies.
+	 * @param stepIntervalMillis How often the world is stepped (milliseconds)
+	 * @param deadlineMillis How long after becoming due each step must be complete 
+	 * (milliseconds). Late steps are counted but not cancelled.
+	 * @return The scheduled world
+	 */
+	public ScheduledWorld addWorld(Actor world, long stepIntervalMillis, long deadlineMillis)
+	{
+		if (stepIntervalMillis <= 0)
+			throw new IllegalArgumentException("Step interval must be positive");
+		
+		this.lock.lock();
+		try
+		{
+			ScheduledWorld scheduled = new ScheduledWorld(world, stepIntervalMillis * 1000000, 
+					deadlineMillis * 1000000, this.nextWorldIndex ++);
+			this.worldAmount ++;
+			this.dueWorlds.add(scheduled);
+			this.stateChanged.signalAll();
+			
+			return scheduled;
+		}
+		finally
+		{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Starts stepping the worlds. Nothing happens if the scheduler is already running. A 
+	 * scheduler that has shut down its own threads can't be started again, in which case 
+	 * an IllegalStateException is thrown. If the executor rejects a step later on, the 
+	 * scheduler stops and the RejectedExecutionException is passed to the uncaught 
+	 * exception handler of the scheduler's thread.
+	 * @see #stop()
+	 */
+	public void start()
+	{
+		this.lock.lock();
+		try
+		{
+			// The steps would be rejected by the executor
+			if (this.ownExecutor != null && this.ownExecutor.isShutdown())
+				throw new IllegalStateException("The scheduler's threads have been shut down");
+			
+			if (this.dispatcher == null)
+			{
+				this.dispatcher = new Thread(this::dispatch, "Collision world scheduler");
+				this.dispatcher.setDaemon(true);
+				this.dispatcher.start();
+			}
+		}
+		finally
+		{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Stops stepping the worlds. The steps that have already started are completed. If the 
+	 * scheduler uses its own threads, they are shut down and the scheduler can't be 
+	 * restarted.
+	 */
+	public void stop()
+	{
+		this.lock.lock();
+		try
+		{
+			if (this.dispatcher != null)
+			{
+				this.dispatcher.interrupt();
+				this.dispatcher = null;
+			}
+			
+			// Shuts down the threads while holding the lock so that the scheduler can't be 
+			// restarted in between
+			if (this.ownExecutor != null)
+				this.ownExecutor.shutdown();
+		}
+		finally
+		{
+			this.lock.unlock();
+		}
+	}
+
+	private void dispatch()
+	{
+		this.lock.lock();
+		try
+		{
+			while (this.dispatcher == Thread.currentThread())
+			{
+				// Starts a new step whenever there is both a due world and room for another 
+				// step
+				if (this.runningSteps < this.maxConcurrentSteps)
+				{
+					ScheduledWorld next = takeDueWorld();
+					if (next != null)
+					{
+						this.runningSteps ++;
+						try
+						{
+							this.executor.execute(() -> runSteps(next));
+						}
+						catch (RejectedExecutionException e)
+						{
+							// The world keeps its place in the schedule and the scheduler 
+							// stops, so that it can be started again once the executor 
+							// accepts steps
+							this.runningSteps --;
+							this.dueWorlds.add(next);
+							this.dispatcher = null;
+							this.stateChanged.signalAll();
+							throw e;
+						}
+						continue;
+					}
+				}
+
+				ScheduledWorld first = this.dueWorlds.peek();
+				if (first == null || this.runningSteps >= this.maxConcurrentSteps)
+					this.stateChanged.await();
+				else
+					this.stateChanged.awaitNanos(first.nextStepTime - System.nanoTime());
+			}
+		}
+		catch (InterruptedException e)
+		{
+			// The scheduler was stopped
+		}
+		finally
+		{
+			this.lock.unlock();
+		}
+	}
+
+	private void runSteps(ScheduledWorld first)
+	{
+		// Each thread keeps stepping the due worlds as long as there are any
+		ScheduledWorld next = first;
+		while (next != null)
+		{
+			next = step(next);
+		}
+	}
+
+	private ScheduledWorld step(ScheduledWorld world)
+	{
+		long stepStarted = System.nanoTime();
+		boolean completed = false;
+		ScheduledWorld next = null;
+		try
+		{
+			// The duration is measured in step intervals, so it is 1 when the world keeps to 
+			// its schedule
+			double duration = 1;
+			if (world.lastStepTime >= 0)
+				duration = (stepStarted - world.lastStepTime) / (double) world.intervalNanos;
+			
+			world.world.act(duration);
+			completed = true;
+		}
+		finally
+		{
+			long stepEnded = System.nanoTime();
+			
+			this.lock.lock();
+			try
+			{
+				world.lastStepTime = stepStarted;
+				if (stepEnded - world.nextStepTime > world.deadlineNanos)
+					world.missedDeadlines ++;
+				
+				if (world.removed || world.world.getIsDeadStateOperator().getState())
+				{
+					if (!world.removed)
+					{
+						world.removed = true;
+						this.worldAmount --;
+					}
+				}
+				else
+				{
+					// Worlds that have fallen behind don't try to catch up but continue from 
+					// the current time
+					world.nextStepTime = Math.max(world.nextStepTime + world.intervalNanos, 
+							stepEnded);
+					this.dueWorlds.add(world);
+				}
+
+				// Continues with the next due world or gives the turn back to the dispatcher
+				if (completed && this.dispatcher != null)
+					next = takeDueWorld();
+				if (next == null)
+				{
+					this.runningSteps --;
+					this.stateChanged.signalAll();
+				}
+				else if (this.dueWorlds.peek() == world)
+					this.stateChanged.signalAll();
+			}
+			finally
+			{
+				this.lock.unlock();
+			}
+		}
+
+		return next;
+	}
+
+	// Expects the lock to be held
+	private ScheduledWorld takeDueWorld()
+	{
+		while (true)
+		{
+			ScheduledWorld next = this.dueWorlds.peek();
+			if (next == null || next.nextStepTime > System.nanoTime())
+				return null;
+			
+			this.dueWorlds.poll();
+			
+			// Dead worlds are not stepped anymore
+			if (next.world.getIsDeadStateOperator().getState())
+			{
+				next.removed = true;
+				this.worldAmount --;
+			}
+			else
+				return next;
+		}
+	}
+
+
+	// NESTED CLASSES	----------------------
+	
+	/**
+	 * ScheduledWorld is a world added to a scheduler. It can be used for following the 
+	 * world's performance and for removing the world from the scheduler.
+	 * @author Mikko Hilpinen
+	 * @since 16.10.2026
+	 */
+	public class ScheduledWorld implements Comparable<ScheduledWorld>
+	{
+		// ATTRIBUTES	----------------------
+		
+		private final Actor world;
+		private final long intervalNanos, deadlineNanos, index;
+		private long nextStepTime;
+		private long lastStepTime = -1;
+		private int missedDeadlines = 0;
+		private boolean removed = false;
+		
+		
+		// CONSTRUCTOR	----------------------
+		
+		private ScheduledWorld(Actor world, long intervalNanos, long deadlineNanos, 
+				long index)
+		{
+			this.world = world;
+			this.intervalNanos = intervalNanos;
+			this.deadlineNanos = deadlineNanos;
+			this.index = index;
+			this.nextStepTime = System.nanoTime();
+		}
+
+
+		// IMPLEMENTED METHODS	--------------
+		
+		@Override
+		public int compareTo(ScheduledWorld other)
+		{
+			// Worlds that become due at the same time are stepped in the order they were added
+			int comparison = Long.compare(this.nextStepTime, other.nextStepTime);
+			if (comparison == 0)
+				return Long.compare(this.index, other.index);
+			else
+				return comparison;
+		}
+
+
+		// ACCESSORS	----------------------
+		
+		/**
+		 * @return The world that is stepped
+		 */
+		public Actor getWorld()
+		{
+			return this.world;
+		}
+
+		/**
+		 * @return How many steps of this world have been completed after their deadline
+		 */
+		public int getMissedDeadlineAmount()
+		{
+			CollisionWorldScheduler.this.lock.lock();
+			try
+			{
+				return this.missedDeadlines;
+			}
+			finally
+			{
+				CollisionWorldScheduler.this.lock.unlock();
+			}
+		}
+
+
+		// OTHER METHODS	------------------
+		
+		/**
+		 * Removes the world from the scheduler. A step that has already started is 
+		 * completed.
+		 */
+		public void remove()
+		{
+			CollisionWorldScheduler.this.lock.lock();
+			try
+			{
+				if (!this.removed)
+				{
+					this.removed = true;
+					CollisionWorldScheduler.this.worldAmount --;
+					CollisionWorldScheduler.this.dueWorlds.remove(this);
+					CollisionWorldScheduler.this.stateChanged.signalAll();
+				}
+			}
+			finally
+			{
+				CollisionWorldScheduler.this.lock.unlock();
+			}
+		}
+	}
+}
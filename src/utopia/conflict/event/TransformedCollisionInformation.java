@@ -0,0 +1,274 @@
+package utopia.conflict.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import utopia.conflict.util.Bounds;
+import utopia.conflict.util.Circle;
+import utopia.conflict.util.Polygon;
+import utopia.genesis.util.Transformation;
+
+/**
+ * TransformedCollisionInformation contains the shapes of collision information transformed 
+ * into absolute space. The shapes are transformed when they are first needed and then kept, 
+ * so the same instance can be used in multiple collision checks without transforming the 
+ * shapes again. The returned shapes shouldn't be modified.
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+public class TransformedCollisionInformation
+{
+	// ATTRIBUTES	----------------------------
+	
+	private final CollisionInformation information;
+	private final Transformation transformation;
+	
+	// The shapes may be requested from multiple threads at once
+	private volatile List<Polygon> polygons = null;
+	private volatile List<Polygon> relativeCirclePolygons = null;
+	private volatile List<Polygon> circlePolygons = null;
+	private volatile List<Circle> circles = null;
+	private volatile Polygon boundingBox = null;
+	private volatile Bounds bounds = null;
+	private volatile Circle boundingCircle = null;
+	private volatile List<Circle> polygonBoundingCircles = null;
+	private volatile List<Circle> circleBoundingCircles = null;
+	
+	
+	// CONSTRUCTOR	----------------------------
+	
+	/**
+	 * Creates a new transformed version of the collision information
+	 * @param information The collision information in relative space
+	 * @param transformation The transformation that transforms the information into absolute 
+	 * space. Null is considered an identity transformation.
+	 */
+	public TransformedCollisionInformation(CollisionInformation information, 
+			Transformation transformation)
+	{
+		this.information = information;
+		this.transformation = transformation;
+	}
+
+	/**
+	 * Creates a new transformed version of the collidable's current collision information
+	 * @param collidable A collidable object
+	 */
+	public TransformedCollisionInformation(Collidable collidable)
+	{
+		this(collidable.getCollisionInformation(), collidable.getTransformation());
+	}
+
+
+	// ACCESSORS	----------------------------
+	
+	/**
+	 * @return The collision information in relative space
+	 */
+	public CollisionInformation getInformation()
+	{
+		return this.information;
+	}
+
+	/**
+	 * @return The transformation used for transforming the information. May be null.
+	 */
+	public Transformation getTransformation()
+	{
+		return this.transformation;
+	}
+
+	/**
+	 * @return The collision polygons in absolute space
+	 */
+	public List<Polygon> getPolygons()
+	{
+		if (this.polygons == null)
+			this.polygons = transform(this.information.getPolygons());
+		
+		return this.polygons;
+	}
+
+	/**
+	 * @return The collision circles transformed into polygons in absolute space
+	 */
+	public List<Polygon> getCirclePolygons()
+	{
+		if (this.circlePolygons == null)
+			this.circlePolygons = transform(getRelativeCirclePolygons());
+		
+		return this.circlePolygons;
+	}
+	
+	/**
+	 * @return The collision circles transformed into polygons in relative space. The level 
+	 * of detail is chosen based on how much the transformation scales the circles.
+	 * @see CollisionInformation#getCirclePolygons(double)
+	 */
+	public List<Polygon> getRelativeCirclePolygons()
+	{
+		if (this.relativeCirclePolygons == null)
+			this.relativeCirclePolygons = this.information.getCirclePolygons(
+					Circle.getMaximumScaling(this.transformation));
+		
+		return this.relativeCirclePolygons;
+	}
+
+	/**
+	 * @return The collision circles in absolute space. The circles are only accurate when 
+	 * the transformation supports circles.
+	 * @see #circlesSupportTransformation()
+	 */
+	public List<Circle> getCircles()
+	{
+		if (this.circles == null)
+		{
+			List<Circle> circles = new ArrayList<>();
+			for (Circle circle : this.information.getCircles())
+			{
+				if (this.transformation == null)
+					circles.add(circle);
+				else
+					circles.add(circle.transformedWith(this.transformation));
+			}
+			this.circles = circles;
+		}
+
+		return this.circles;
+	}
+
+	/**
+	 * @return The bounding box of the information transformed into absolute space
+	 */
+	public Polygon getBoundingBox()
+	{
+		if (this.boundingBox == null)
+		{
+			if (this.transformation == null)
+				this.boundingBox = this.information.getBoundingBox();
+			else
+				this.boundingBox = this.information.getBoundingBox().transformedWith(
+						this.transformation);
+		}
+
+		return this.boundingBox;
+	}
+
+	/**
+	 * @return Axis aligned bounds around the information in absolute space
+	 */
+	public Bounds getBounds()
+	{
+		if (this.bounds == null)
+			this.bounds = this.information.getBounds().transformedWith(this.transformation);
+		
+		return this.bounds;
+	}
+	
+	/**
+	 * @return A circle around the information in absolute space
+	 */
+	public Circle getBoundingCircle()
+	{
+		if (this.boundingCircle == null)
+			this.boundingCircle = this.information.getBoundingCircle().enclosingTransformedWith(
+					this.transformation);
+		
+		return this.boundingCircle;
+	}
+	
+	/**
+	 * @return A circle around each of the collision polygons in absolute space. The circles 
+	 * are in the same order as the polygons.
+	 * @see #getPolygons()
+	 */
+	public List<Circle> getPolygonBoundingCircles()
+	{
+		if (this.polygonBoundingCircles == null)
+		{
+			List<Circle> circles = new ArrayList<>();
+			for (Polygon polygon : this.information.getPolygons())
+			{
+				circles.add(polygon.getBoundingCircle().enclosingTransformedWith(
+						this.transformation));
+			}
+			this.polygonBoundingCircles = circles;
+		}
+		
+		return this.polygonBoundingCircles;
+	}
+	
+	/**
+	 * @return A circle around each of the collision circles in absolute space. The circles 
+	 * also contain the circle polygons and are in the same order as the circles.
+	 * @see #getCircles()
+	 * @see #getCirclePolygons()
+	 */
+	public List<Circle> getCircleBoundingCircles()
+	{
+		if (this.circleBoundingCircles == null)
+		{
+			List<Circle> circles = new ArrayList<>();
+			for (Circle circle : this.information.getCircles())
+			{
+				circles.add(circle.enclosingTransformedWith(this.transformation));
+			}
+			this.circleBoundingCircles = circles;
+		}
+		
+		return this.circleBoundingCircles;
+	}
+
+
+	// OTHER METHODS	------------------------
+	
+	/**
+	 * @return Can the circles be transformed without them becoming ellipsoid
+	 */
+	public boolean circlesSupportTransformation()
+	{
+		return this.transformation == null || Circle.supportsTransformation(this.transformation);
+	}
+
+	/**
+	 * Transforms all of the shapes and calculates their collision axes and bounding circles 
+	 * right away instead of waiting for them to be needed. This is useful for information 
+	 * that is used many times.
+	 */
+	public void prepare()
+	{
+		getBounds();
+		getBoundingCircle();
+		getPolygonBoundingCircles();
+		for (Polygon polygon : getPolygons())
+		{
+			polygon.getCollisionAxes();
+		}
+		
+		// The circles are only converted into polygons when they can't be transformed as is
+		if (circlesSupportTransformation())
+			getCircles();
+		else
+		{
+			getCircleBoundingCircles();
+			for (Polygon polygon : getCirclePolygons())
+			{
+				polygon.getCollisionAxes();
+			}
+		}
+	}
+
+	private List<Polygon> transform(List<? extends Polygon> polygons)
+	{
+		List<Polygon> transformed = new ArrayList<>(polygons.size());
+		for (Polygon polygon : polygons)
+		{
+			if (this.transformation == null)
+				transformed.add(polygon);
+			else
+				transformed.add(polygon.transformedWith(this.transformation));
+		}
+
+		return transformed;
+	}
+}
@@ -0,0 +1,313 @@
+package utopia.conflict.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import utopia.conflict.util.CollisionCheck;
+import utopia.conflict.util.CollisionData;
+import utopia.conflict.util.Polygon;
+import utopia.genesis.util.HelpMath;
+import utopia.genesis.util.Line;
+import utopia.genesis.util.Vector3D;
+
+/**
+ * This class tests that the scalar projection interval polygon collision check produces the 
+ * same results as the earlier check that was based on projected lines. Where the results 
+ * differ, the exact GJK check is used for finding out which one was correct. The polygons 
+ * are random convex polygons and the results are printed to the console. The extreme vertex 
+ * searches used for large polygons are also tested on a polygon with collinear vertices.
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+class SatKernelTest
+{
+	// ATTRIBUTES	-------------------------
+	
+	private static final int PAIR_AMOUNT = 20000;
+	private static final int BENCHMARK_ROUNDS = 200;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	private SatKernelTest()
+	{
+		// The constructor is hidden since the interface is static
+	}
+
+
+	// MAIN METHOD	-------------------------
+	
+	/**
+	 * Starts the test
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		Random random = new Random(18);
+		Polygon[] firstPolygons = new Polygon[PAIR_AMOUNT];
+		Polygon[] secondPolygons = new Polygon[PAIR_AMOUNT];
+		for (int i = 0; i < PAIR_AMOUNT; i++)
+		{
+			firstPolygons[i] = createConvexPolygon(random, new Vector3D(0, 0));
+			secondPolygons[i] = createConvexPolygon(random, new Vector3D(
+					random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100));
+		}
+
+		// Compares the results of each check. Where the results differ, the exact GJK check 
+		// tells which one is correct.
+		int collisions = 0, matches = 0, corrected = 0, failures = 0;
+		for (int i = 0; i < PAIR_AMOUNT; i++)
+		{
+			Polygon first = firstPolygons[i], second = secondPolygons[i];
+			CollisionData expected = checkWithLines(first, second, true, true);
+			CollisionData result = CollisionCheck.checkPolygonCollision(first, second, true, 
+					true);
+			
+			if (result.collided())
+				collisions ++;
+			
+			if (resultsMatch(expected, result, true) && 
+					checkWithLines(first, second, false, false).collided() == 
+					CollisionCheck.checkPolygonCollision(first, second, false, false).collided())
+				matches ++;
+			else if (resultsMatch(CollisionCheck.checkPolygonCollisionGJK(first, second, 
+					false, true), result, false))
+				corrected ++;
+			else
+			{
+				failures ++;
+				System.out.println("Failed: " + first + " / " + second);
+			}
+		}
+
+		System.out.println("Checked " + PAIR_AMOUNT + " pairs, " + collisions + 
+				" collisions");
+		System.out.println("Same results: " + matches);
+		System.out.println("Different results, corrected by the new check: " + corrected);
+		System.out.println("Failures: " + failures);
+		
+		checkCollinearSupports(random);
+		
+		// Compares the speed of the checks
+		long lineTime = 0, intervalTime = 0;
+		for (int round = 0; round < BENCHMARK_ROUNDS; round++)
+		{
+			long start = System.nanoTime();
+			for (int i = 0; i < PAIR_AMOUNT; i++)
+			{
+				checkWithLines(firstPolygons[i], secondPolygons[i], false, true);
+			}
+			long middle = System.nanoTime();
+			for (int i = 0; i < PAIR_AMOUNT; i++)
+			{
+				CollisionCheck.checkPolygonCollision(firstPolygons[i], secondPolygons[i], 
+						false, true);
+			}
+			long end = System.nanoTime();
+			
+			lineTime += middle - start;
+			intervalTime += end - middle;
+		}
+
+		System.out.println("Projected lines: " + lineTime / 1000000 + " ms");
+		System.out.println("Scalar intervals: " + intervalTime / 1000000 + " ms");
+	}
+
+
+	// OTHER METHODS	---------------------
+	
+	private static void checkCollinearSupports(Random random)
+	{
+		// A square with collinear vertices on each side. With 16 vertices, the collision 
+		// checks climb along the edges when searching the extreme vertices.
+		List<Vector3D> vertices = new ArrayList<>();
+		for (int i = 0; i < 4; i++)
+		{
+			vertices.add(new Vector3D(i * 10, 0));
+		}
+		for (int i = 0; i < 4; i++)
+		{
+			vertices.add(new Vector3D(40, i * 10));
+		}
+		for (int i = 0; i < 4; i++)
+		{
+			vertices.add(new Vector3D(40 - i * 10, 40));
+		}
+		for (int i = 0; i < 4; i++)
+		{
+			vertices.add(new Vector3D(0, 40 - i * 10));
+		}
+		Polygon square = new Polygon(vertices.toArray(new Vector3D[0]));
+		
+		// Each search must find a vertex as far as the one found by going through all the 
+		// vertices, no matter where it starts from
+		double[][] directions = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}, {1, 1}, {-1, 1}};
+		int searches = 0, supportFailures = 0;
+		for (Polygon polygon : new Polygon[] {square, square.reverse()})
+		{
+			for (int start = 0; start < polygon.getVertexAmount(); start++)
+			{
+				for (int i = 0; i < directions.length + 20; i++)
+				{
+					double dx, dy;
+					if (i < directions.length)
+					{
+						dx = directions[i][0];
+						dy = directions[i][1];
+					}
+					else
+					{
+						dx = random.nextGaussian();
+						dy = random.nextGaussian();
+					}
+					
+					int climbed = polygon.getSupportIndex(dx, dy, start);
+					int scanned = polygon.getSupportIndex(dx, dy);
+					searches ++;
+					if ((polygon.getX(scanned) - polygon.getX(climbed)) * dx + 
+							(polygon.getY(scanned) - polygon.getY(climbed)) * dy > 0.000001)
+					{
+						supportFailures ++;
+						System.out.println("Failed support search from " + start + 
+								" towards " + dx + "," + dy);
+					}
+				}
+			}
+		}
+		
+		// The SAT and GJK checks must agree on the square as well
+		int collisionFailures = 0;
+		for (int i = 0; i < PAIR_AMOUNT / 10; i++)
+		{
+			Polygon other = createConvexPolygon(random, new Vector3D(
+					random.nextDouble() * 160 - 60, random.nextDouble() * 160 - 60));
+			CollisionData sat = CollisionCheck.checkPolygonCollision(square, other, false, 
+					true);
+			if (!resultsMatch(CollisionCheck.checkPolygonCollisionGJK(square, other, false, 
+					true), sat, false))
+			{
+				collisionFailures ++;
+				System.out.println("Failed: " + square + " / " + other);
+			}
+		}
+		
+		System.out.println("Support searches on collinear vertices: " + searches + 
+				", failures: " + supportFailures);
+		System.out.println("Collision checks against collinear vertices: " + 
+				PAIR_AMOUNT / 10 + ", failures: " + collisionFailures);
+	}
+	
+	private static Polygon createConvexPolygon(Random random, Vector3D center)
+	{
+		// Places the vertices around a circle in order
+		int vertexAmount = 3 + random.nextInt(6);
+		double[] angles = new double[vertexAmount];
+		for (int i = 0; i < vertexAmount; i++)
+		{
+			angles[i] = random.nextDouble() * 360;
+		}
+		Arrays.sort(angles);
+		
+		double radius = 20 + random.nextDouble() * 40;
+		Vector3D[] vertices = new Vector3D[vertexAmount];
+		for (int i = 0; i < vertexAmount; i++)
+		{
+			vertices[i] = center.plus(new Vector3D(radius, 0).withZDirection(angles[i]));
+		}
+
+		return new Polygon(vertices);
+	}
+
+	private static boolean resultsMatch(CollisionData expected, CollisionData result, 
+			boolean compareCollisionPoints)
+	{
+		if (expected.collided() != result.collided())
+			return false;
+		if (!expected.collided())
+			return true;
+		
+		if (!pointsMatch(expected.getMtv(), result.getMtv()))
+			return false;
+		if (!compareCollisionPoints)
+			return true;
+		
+		List<Vector3D> expectedPoints = expected.getCollisionPoints();
+		List<Vector3D> points = result.getCollisionPoints();
+		if (expectedPoints.size() != points.size())
+			return false;
+		for (int i = 0; i < points.size(); i++)
+		{
+			if (!pointsMatch(expectedPoints.get(i), points.get(i)))
+				return false;
+		}
+
+		return true;
+	}
+
+	private static boolean pointsMatch(Vector3D first, Vector3D second)
+	{
+		return HelpMath.areApproximatelyEqual(first.getX(), second.getX()) && 
+				HelpMath.areApproximatelyEqual(first.getY(), second.getY());
+	}
+
+	/*
+	 * This is the polygon collision check as it was before the scalar intervals were used
+	 */
+	private static CollisionData checkWithLines(Polygon first, Polygon second, 
+			boolean calculateCollisionPoints, boolean calculateMTV)
+	{
+		List<Vector3D> firstPolygonAxes = first.getCollisionAxes();
+		List<Vector3D> axes = new ArrayList<>(firstPolygonAxes);
+		for (Vector3D axis : second.getCollisionAxes())
+		{
+			boolean skip = false;
+			for (Vector3D checkedAxis : firstPolygonAxes)
+			{
+				if (checkedAxis.isParallerWith(axis))
+				{
+					skip = true;
+					break;
+				}
+			}
+
+			if (!skip)
+				axes.add(axis);
+		}
+
+		Vector3D mtv = null;
+		double smallestOverlap = -1;
+		
+		for (Vector3D axis : axes)
+		{
+			Line firstProjection = first.getProjection(axis);
+			Line secondProjection = second.getProjection(axis);
+			
+			if (calculateMTV || calculateCollisionPoints)
+			{
+				Vector3D overlapVector = CollisionCheck.projectionsOverlapMTV(firstProjection, 
+						secondProjection);
+				
+				if (overlapVector == null)
+					return CollisionData.noCollision();
+				
+				double overlapAmount = overlapVector.getLength();
+				
+				if (mtv == null || overlapAmount < smallestOverlap)
+				{
+					mtv = overlapVector;
+					smallestOverlap = overlapAmount;
+				}
+			}
+			else if (!CollisionCheck.projectionsOverlap(firstProjection, secondProjection))
+				return CollisionData.noCollision();
+		}
+
+		List<Vector3D> collisionPoints = null;
+		if (calculateCollisionPoints)
+			collisionPoints = CollisionCheck.getCollisionPoints(first, second, mtv);
+		
+		return new CollisionData(true, mtv, collisionPoints);
+	}
+}
@@ -39,6 +39,7 @@ public class TestWall extends SimpleHandled implements Collidable, Drawable
 		this.transformation = new Transformation(topLeft);
 		this.collisionInformation = new CollisionInformation(Vector3D.ZERO, 
 				Polygon.getRectangleVertices(Vector3D.ZERO, size));
+		this.collisionInformation.setStatic(true);
 	}
 	
 	/**
@@ -51,6 +52,7 @@ public class TestWall extends SimpleHandled implements Collidable, Drawable
 	{
 		this.transformation = new Transformation(origin);
 		this.collisionInformation = new CollisionInformation(null, 8, 64, new Circle(radius));
+		this.collisionInformation.setStatic(true);
 	}
 	
 	
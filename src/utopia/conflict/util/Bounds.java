@@ -0,0 +1,352 @@
+package utopia.conflict.util;
+
+import utopia.genesis.util.Transformation;
+import utopia.genesis.util.Vector3D;
+
+/**
+ * Bounds are axis aligned bounding boxes in 2D space. Unlike bounding box polygons, bounds
+ * only hold four primitive values, which makes overlap checking very cheap. Bounds are
+ * immutable.
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+public class Bounds
+{
+	// ATTRIBUTES	--------------------------
+	
+	private final double minX, minY, maxX, maxY;
+	
+	
+	// CONSTRUCTOR	--------------------------
+	
+	/**
+	 * Creates new bounds
+	 * @param minX The smallest x-coordinate inside the bounds
+	 * @param minY The smallest y-coordinate inside the bounds
+	 * @param maxX The largest x-coordinate inside the bounds
+	 * @param maxY The largest y-coordinate inside the bounds
+	 */
+	public Bounds(double minX, double minY, double maxX, double maxY)
+	{
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+	}
+
+	/**
+	 * Creates new bounds between two corner points
+	 * @param topLeft The top left corner of the bounds
+	 * @param bottomRight The bottom right corner of the bounds
+	 */
+	public Bounds(Vector3D topLeft, Vector3D bottomRight)
+	{
+		this(topLeft.getX(), topLeft.getY(), bottomRight.getX(), bottomRight.getY());
+	}
+
+	/**
+	 * Creates bounds that contain all vertices of the provided polygon
+	 * @param polygon A polygon
+	 * @return Bounds around the polygon
+	 */
+	public static Bounds around(Polygon polygon)
+	{
+		return new Bounds(polygon.getTopLeft(), polygon.getBottomRight());
+	}
+
+
+	// IMPLEMENTED METHODS	------------------
+	
+	@Override
+	public String toString()
+	{
+		return "(" + this.minX + "," + this.minY + ")-(" + this.maxX + "," + this.maxY + ")";
+	}
+
+
+	// ACCESSORS	--------------------------
+	
+	/**
+	 * @return The smallest x-coordinate inside the bounds
+	 */
+	public double getMinX()
+	{
+		return this.minX;
+	}
+
+	/**
+	 * @return The smallest y-coordinate inside the bounds
+	 */
+	public double getMinY()
+	{
+		return this.minY;
+	}
+
+	/**
+	 * @return The largest x-coordinate inside the bounds
+	 */
+	public double getMaxX()
+	{
+		return this.maxX;
+	}
+
+	/**
+	 * @return The largest y-coordinate inside the bounds
+	 */
+	public double getMaxY()
+	{
+		return this.maxY;
+	}
+
+
+	// OTHER METHODS	----------------------
+	
+	/**
+	 * @return The top left corner of the bounds
+	 */
+	public Vector3D getTopLeft()
+	{
+		return new Vector3D(this.minX, this.minY);
+	}
+
+	/**
+	 * @return The bottom right corner of the bounds
+	 */
+	public Vector3D getBottomRight()
+	{
+		return new Vector3D(this.maxX, this.maxY);
+	}
+
+	/**
+	 * @return The width of the bounds
+	 */
+	public double getWidth()
+	{
+		return this.maxX - this.minX;
+	}
+
+	/**
+	 * @return The height of the bounds
+	 */
+	public double getHeight()
+	{
+		return this.maxY - this.minY;
+	}
+
+	/**
+	 * Checks whether the two bounds overlap each other. Bounds that touch each other are
+	 * considered overlapping.
+	 * @param other Another set of bounds
+	 * @return Do the bounds overlap
+	 */
+	public boolean overlaps(Bounds other)
+	{
+		return overlaps(other.minX, other.minY, other.maxX, other.maxY);
+	}
+
+	/**
+	 * Checks whether these bounds overlap an area. Areas that touch the bounds are 
+	 * considered overlapping.
+	 * @param minX The smallest x-coordinate of the area
+	 * @param minY The smallest y-coordinate of the area
+	 * @param maxX The largest x-coordinate of the area
+	 * @param maxY The largest y-coordinate of the area
+	 * @return Do the bounds and the area overlap
+	 */
+	public boolean overlaps(double minX, double minY, double maxX, double maxY)
+	{
+		return this.minX <= maxX && minX <= this.maxX && this.minY <= maxY && 
+				minY <= this.maxY;
+	}
+
+	/**
+	 * Checks whether these bounds overlap a convex polygon. Shapes that touch each other are 
+	 * considered overlapping.
+	 * @param polygon A convex polygon
+	 * @return Do the bounds and the polygon overlap
+	 */
+	public boolean overlaps(Polygon polygon)
+	{
+		// The sides of the bounds are compared to the polygon's bounding box first
+		Vector3D topLeft = polygon.getTopLeft();
+		Vector3D bottomRight = polygon.getBottomRight();
+		if (topLeft.getX() > this.maxX || bottomRight.getX() < this.minX || 
+				topLeft.getY() > this.maxY || bottomRight.getY() < this.minY)
+			return false;
+		
+		// The polygon is convex, so it is separated from the bounds when all of the corners 
+		// lie outside one of its edges
+		double inside = polygon.getCirculationDirection() == 
+				Polygon.CirculationDirection.CLOCKWISE ? 1 : -1;
+		int vertexAmount = polygon.getVertexAmount();
+		for (int i = 0, j = vertexAmount - 1; i < vertexAmount; j = i++)
+		{
+			double startX = polygon.getX(j), startY = polygon.getY(j);
+			double endX = polygon.getX(i), endY = polygon.getY(i);
+			if (GeometryPredicates.orientation(startX, startY, endX, endY, this.minX, 
+					this.minY) * inside < 0 && 
+					GeometryPredicates.orientation(startX, startY, endX, endY, this.maxX, 
+					this.minY) * inside < 0 && 
+					GeometryPredicates.orientation(startX, startY, endX, endY, this.maxX, 
+					this.maxY) * inside < 0 && 
+					GeometryPredicates.orientation(startX, startY, endX, endY, this.minX, 
+					this.maxY) * inside < 0)
+				return false;
+		}
+		
+		return true;
+	}
+
+	/**
+	 * Checks whether these bounds overlap a circle. Shapes that touch each other are 
+	 * considered overlapping.
+	 * @param circle A circle
+	 * @return Do the bounds and the circle overlap
+	 */
+	public boolean overlaps(Circle circle)
+	{
+		// Finds the point inside the bounds that is closest to the circle's center
+		Vector3D center = circle.getCenter();
+		double dx = center.getX() - Math.max(this.minX, Math.min(center.getX(), this.maxX));
+		double dy = center.getY() - Math.max(this.minY, Math.min(center.getY(), this.maxY));
+		return dx * dx + dy * dy <= circle.getRadius() * circle.getRadius();
+	}
+
+	/**
+	 * Checks whether the other bounds lie completely inside these bounds
+	 * @param other Another set of bounds
+	 * @return Are the other bounds contained within these bounds
+	 */
+	public boolean contains(Bounds other)
+	{
+		return this.minX <= other.minX && this.minY <= other.minY &&
+				this.maxX >= other.maxX && this.maxY >= other.maxY;
+	}
+
+	/**
+	 * Checks whether a point lies within these bounds
+	 * @param x The x-coordinate of the point
+	 * @param y The y-coordinate of the point
+	 * @return Is the point inside the bounds
+	 */
+	public boolean contains(double x, double y)
+	{
+		return x >= this.minX && x <= this.maxX && y >= this.minY && y <= this.maxY;
+	}
+
+	/**
+	 * Checks whether a point lies within these bounds
+	 * @param point A point
+	 * @return Is the point inside the bounds
+	 */
+	public boolean contains(Vector3D point)
+	{
+		return contains(point.getX(), point.getY());
+	}
+
+	/**
+	 * Finds the point where a line segment enters these bounds
+	 * @param start The start point of the segment
+	 * @param end The end point of the segment
+	 * @return How far along the segment it enters the bounds, between 0 (the start) and 1 
+	 * (the end). 0 if the segment starts inside the bounds. Negative if the segment doesn't 
+	 * touch the bounds at all.
+	 */
+	public double getEntryFraction(Vector3D start, Vector3D end)
+	{
+		return getEntryFraction(start.getX(), start.getY(), end.getX() - start.getX(), 
+				end.getY() - start.getY());
+	}
+
+	/**
+	 * Finds the point where a line segment enters these bounds
+	 * @param startX The x-coordinate of the segment's start point
+	 * @param startY The y-coordinate of the segment's start point
+	 * @param deltaX The length of the segment along the x-axis
+	 * @param deltaY The length of the segment along the y-axis
+	 * @return How far along the segment it enters the bounds, between 0 (the start) and 1 
+	 * (the end). 0 if the segment starts inside the bounds. Negative if the segment doesn't 
+	 * touch the bounds at all.
+	 */
+	public double getEntryFraction(double startX, double startY, double deltaX, double deltaY)
+	{
+		// Clips the segment between each pair of parallel sides
+		double entry = 0, exit = 1;
+		if (deltaX == 0)
+		{
+			if (startX < this.minX || startX > this.maxX)
+				return -1;
+		}
+		else
+		{
+			double t1 = (this.minX - startX) / deltaX;
+			double t2 = (this.maxX - startX) / deltaX;
+			entry = Math.max(entry, Math.min(t1, t2));
+			exit = Math.min(exit, Math.max(t1, t2));
+		}
+		
+		if (deltaY == 0)
+		{
+			if (startY < this.minY || startY > this.maxY)
+				return -1;
+		}
+		else
+		{
+			double t1 = (this.minY - startY) / deltaY;
+			double t2 = (this.maxY - startY) / deltaY;
+			entry = Math.max(entry, Math.min(t1, t2));
+			exit = Math.min(exit, Math.max(t1, t2));
+		}
+		
+		if (entry > exit)
+			return -1;
+		else
+			return entry;
+	}
+
+	/**
+	 * Creates a larger version of these bounds
+	 * @param margin How much the bounds are extended to each direction
+	 * @return The extended bounds
+	 */
+	public Bounds extended(double margin)
+	{
+		return new Bounds(this.minX - margin, this.minY - margin, this.maxX + margin,
+				this.maxY + margin);
+	}
+
+	/**
+	 * Combines two bounds together
+	 * @param other Another set of bounds
+	 * @return Bounds that contain both of the bounds
+	 */
+	public Bounds combinedWith(Bounds other)
+	{
+		return new Bounds(Math.min(this.minX, other.minX), Math.min(this.minY, other.minY),
+				Math.max(this.maxX, other.maxX), Math.max(this.maxY, other.maxY));
+	}
+
+	/**
+	 * Transforms these bounds from relative space to absolute space. Since the bounds must
+	 * stay axis aligned, the transformed bounds contain the transformed corners of these
+	 * bounds and are larger than these when rotation is involved.
+	 * @param transformation The transformation applied to the bounds. Null is considered an
+	 * identity transformation.
+	 * @return The transformed bounds
+	 */
+	public Bounds transformedWith(Transformation transformation)
+	{
+		if (transformation == null)
+			return this;
+		
+		Vector3D c1 = transformation.transform(new Vector3D(this.minX, this.minY));
+		Vector3D c2 = transformation.transform(new Vector3D(this.maxX, this.minY));
+		Vector3D c3 = transformation.transform(new Vector3D(this.maxX, this.maxY));
+		Vector3D c4 = transformation.transform(new Vector3D(this.minX, this.maxY));
+		
+		return new Bounds(Math.min(Math.min(c1.getX(), c2.getX()), Math.min(c3.getX(), c4.getX())),
+				Math.min(Math.min(c1.getY(), c2.getY()), Math.min(c3.getY(), c4.getY())),
+				Math.max(Math.max(c1.getX(), c2.getX()), Math.max(c3.getX(), c4.getX())),
+				Math.max(Math.max(c1.getY(), c2.getY()), Math.max(c3.getY(), c4.getY())));
+	}
+}
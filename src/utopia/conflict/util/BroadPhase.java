@@ -0,0 +1,212 @@
+package utopia.conflict.util;
+
+import java.util.Collection;
+
+import utopia.genesis.util.Vector3D;
+
+/**
+ * Broad phases are spatial indices that keep track of the bounds of a set of items. They are
+ * used for quickly finding the items that may collide with each other, so that the more
+ * expensive collision checks only need to be performed on those. Each item may also belong to 
+ * a set of layers, which are presented as bits of a 64-bit word. Queries may be limited to 
+ * certain layers with a mask, in which case the items on other layers are skipped without 
+ * checking their bounds.
+ * @author Mikko Hilpinen
+ * @param <T> The type of item indexed in the broad phase
+ * @since 16.10.2026
+ */
+public interface BroadPhase<T>
+{
+	/**
+	 * A layer word / mask that contains all of the layers
+	 */
+	public static final long ALL_LAYERS = -1L;
+	
+	/**
+	 * Adds a new item to the broad phase
+	 * @param item The item that is added
+	 * @param bounds The bounds of the item in absolute space
+	 * @param layers The layers the item belongs to
+	 */
+	public void add(T item, Bounds bounds, long layers);
+	
+	/**
+	 * Updates the bounds of an item already in the broad phase. If the item wasn't in the
+	 * broad phase yet, it is added.
+	 * @param item The item that moved
+	 * @param bounds The new bounds of the item in absolute space
+	 */
+	public void update(T item, Bounds bounds);
+	
+	/**
+	 * Updates the bounds and the layers of an item already in the broad phase. If the item 
+	 * wasn't in the broad phase yet, it is added.
+	 * @param item The item that changed
+	 * @param bounds The new bounds of the item in absolute space
+	 * @param layers The new layers of the item
+	 */
+	public void update(T item, Bounds bounds, long layers);
+	
+	/**
+	 * Removes an item from the broad phase
+	 * @param item The item that is removed
+	 */
+	public void remove(T item);
+	
+	/**
+	 * @param item An item
+	 * @return Is the item indexed in this broad phase
+	 */
+	public boolean contains(T item);
+	
+	/**
+	 * Removes all items from the broad phase
+	 */
+	public void clear();
+	
+	/**
+	 * Goes through the items on the provided layers whose bounds overlap the provided area. 
+	 * Each item is presented at most once. The items are handed to the callback as they are 
+	 * found, so the callback can test them and keep only the ones it needs.
+	 * @param minX The smallest x-coordinate of the searched area (absolute space)
+	 * @param minY The smallest y-coordinate of the searched area (absolute space)
+	 * @param maxX The largest x-coordinate of the searched area (absolute space)
+	 * @param maxY The largest y-coordinate of the searched area (absolute space)
+	 * @param layerMask The layers that are searched. Items that don't belong to any of 
+	 * these layers are skipped.
+	 * @param callback The callback that is informed about each overlapping item
+	 */
+	public void query(double minX, double minY, double maxX, double maxY, long layerMask, 
+			QueryCallback<? super T> callback);
+	
+	/**
+	 * Finds the items on the provided layers whose bounds overlap the bounds of an item in 
+	 * this broad phase. The item itself is not included in the results.
+	 * @param item An item in this broad phase
+	 * @param layerMask The layers that are searched. Items that don't belong to any of 
+	 * these layers are skipped.
+	 * @param results The collection the overlapping items are added to
+	 */
+	public void queryOverlapping(T item, long layerMask, Collection<? super T> results);
+	
+	/**
+	 * Goes through the items on the provided layers whose bounds a line segment passes 
+	 * through. The items are presented in the order the segment enters their bounds (front 
+	 * to back). The search ends once no remaining item can be reached before the maximum 
+	 * fraction, which the callback may lower after each item.
+	 * @param start The start point of the segment (absolute space)
+	 * @param end The end point of the segment (absolute space)
+	 * @param maxFraction How far along the segment (between 0 and 1) the items are searched
+	 * @param layerMask The layers that are searched. Items that don't belong to any of 
+	 * these layers are skipped.
+	 * @param callback The callback that is informed about each item along the segment
+	 */
+	public void raycast(Vector3D start, Vector3D end, double maxFraction, long layerMask, 
+			RaycastCallback<? super T> callback);
+	
+	/**
+	 * Finishes any work the broad phase has postponed until the next query. After this, 
+	 * the queries don't modify the broad phase, so they may be performed from multiple 
+	 * threads at once, as long as the broad phase isn't modified at the same time.
+	 */
+	public default void flush()
+	{
+		// Most broad phases are always up to date
+	}
+	
+	/**
+	 * Adds a new item to the broad phase. The item will belong to all layers.
+	 * @param item The item that is added
+	 * @param bounds The bounds of the item in absolute space
+	 */
+	public default void add(T item, Bounds bounds)
+	{
+		add(item, bounds, ALL_LAYERS);
+	}
+	
+	/**
+	 * Finds the items on the provided layers whose bounds overlap the provided area. Each 
+	 * item is added to the results at most once.
+	 * @param area The area that is searched (absolute space)
+	 * @param layerMask The layers that are searched. Items that don't belong to any of 
+	 * these layers are skipped.
+	 * @param results The collection the overlapping items are added to
+	 */
+	public default void query(Bounds area, long layerMask, Collection<? super T> results)
+	{
+		query(area.getMinX(), area.getMinY(), area.getMaxX(), area.getMaxY(), layerMask, 
+				results::add);
+	}
+	
+	/**
+	 * Finds the items whose bounds overlap the provided area. Each item is added to the
+	 * results at most once.
+	 * @param area The area that is searched (absolute space)
+	 * @param results The collection the overlapping items are added to
+	 */
+	public default void query(Bounds area, Collection<? super T> results)
+	{
+		query(area, ALL_LAYERS, results);
+	}
+	
+	/**
+	 * Finds the items whose bounds overlap the bounds of an item in this broad phase. The 
+	 * item itself is not included in the results.
+	 * @param item An item in this broad phase
+	 * @param results The collection the overlapping items are added to
+	 */
+	public default void queryOverlapping(T item, Collection<? super T> results)
+	{
+		queryOverlapping(item, ALL_LAYERS, results);
+	}
+	
+	/**
+	 * Goes through the items whose bounds a line segment passes through, from front to back
+	 * @param start The start point of the segment (absolute space)
+	 * @param end The end point of the segment (absolute space)
+	 * @param callback The callback that is informed about each item along the segment
+	 * @see #raycast(Vector3D, Vector3D, double, long, RaycastCallback)
+	 */
+	public default void raycast(Vector3D start, Vector3D end, 
+			RaycastCallback<? super T> callback)
+	{
+		raycast(start, end, 1, ALL_LAYERS, callback);
+	}
+	
+	
+	// NESTED CLASSES	----------------------
+	
+	/**
+	 * QueryCallbacks are informed about the items found in an area
+	 * @author Mikko Hilpinen
+	 * @param <T> The type of item the callback is informed about
+	 * @since 16.10.2026
+	 */
+	public static interface QueryCallback<T>
+	{
+		/**
+		 * This method is called for each item whose bounds overlap the searched area
+		 * @param item The item whose bounds overlap the area
+		 */
+		public void onItemFound(T item);
+	}
+	
+	/**
+	 * RaycastCallbacks are informed about the items along a cast line segment
+	 * @author Mikko Hilpinen
+	 * @param <T> The type of item the callback is informed about
+	 * @since 16.10.2026
+	 */
+	public static interface RaycastCallback<T>
+	{
+		/**
+		 * This method is called for each item whose bounds the segment passes through
+		 * @param item The item whose bounds the segment passes through
+		 * @param maxFraction The current maximum fraction of the search
+		 * @return The new maximum fraction of the search. Usually the fraction where the 
+		 * segment hits the item or the current maximum fraction if it doesn't. Returning 
+		 * 0 ends the search.
+		 */
+		public double onItemReached(T item, double maxFraction);
+	}
+}
@@ -1,6 +1,7 @@
 package utopia.conflict.util;
 
 import java.awt.Graphics2D;
+import java.util.Random;
 
 import utopia.genesis.util.HelpMath;
 import utopia.genesis.util.Line;
@@ -177,6 +178,40 @@ public class Circle
 		return new Circle(transformedCenter, scaledRadius);
 	}
 	
+	/**
+	 * Transforms the circle from relative space to absolute space so that the transformed 
+	 * circle contains the whole transformed area of this circle. Unlike 
+	 * {@link #transformedWith(Transformation)}, this works with any transformation, but 
+	 * when the transformation would make the circle ellipsoid, the resulting circle is 
+	 * larger than the ellipse.
+	 * @param transformation The transformation applied to the circle. Null is considered 
+	 * an identity transformation.
+	 * @return A circle around the transformed circle
+	 */
+	public Circle enclosingTransformedWith(Transformation transformation)
+	{
+		if (transformation == null)
+			return this;
+		
+		return new Circle(transformation.transform(getCenter()), 
+				getRadius() * getMaximumScaling(transformation));
+	}
+	
+	/**
+	 * Checks whether the two circles overlap each other. Circles that touch each other are 
+	 * considered overlapping.
+	 * @param other Another circle
+	 * @return Do the circles overlap
+	 */
+	public boolean overlaps(Circle other)
+	{
+		double dx = other.getCenter().getX() - getCenter().getX();
+		double dy = other.getCenter().getY() - getCenter().getY();
+		double radii = getRadius() + other.getRadius();
+		
+		return dx * dx + dy * dy <= radii * radii;
+	}
+	
 	/**
 	 * @return The top left corner of the circle's bounding box
 	 */
@@ -240,6 +275,26 @@ public class Circle
 		return new Polygon(vertices);
 	}
 	
+	/**
+	 * Finds out how many vertices a polygon needs so that it stays close to this circle
+	 * @param tolerance How far the polygon's edges may be from the circle's edge at most
+	 * @return The smallest amount of vertices that keeps the polygon within the tolerance. 
+	 * At least 3.
+	 */
+	public int getVertexAmountFor(double tolerance)
+	{
+		// The edges are furthest from the circle at their middle points, where the distance 
+		// is r * (1 - cos(a/2)) for an angle increment a
+		if (tolerance >= getRadius())
+			return 3;
+		
+		double halfAngle = Math.acos(1 - tolerance / getRadius());
+		if (halfAngle <= 0)
+			return Integer.MAX_VALUE;
+		
+		return Math.max(3, (int) Math.ceil(Math.PI / halfAngle));
+	}
+	
 	/**
 	 * Checks whether a point lies inside the circle
 	 * @param point A point
@@ -289,4 +344,148 @@ public class Circle
 				transformation.getScaling().getY()) && 
 				transformation.getShear().equalsIn2D(Vector3D.ZERO);
 	}
+	
+	/**
+	 * Finds out how much a transformation stretches shapes at most. A circle of radius r 
+	 * fits inside a circle of radius r * scaling after the transformation.
+	 * @param transformation A transformation. Null is considered an identity 
+	 * transformation.
+	 * @return The largest scaling the transformation applies to any direction
+	 */
+	public static double getMaximumScaling(Transformation transformation)
+	{
+		if (transformation == null)
+			return 1;
+		
+		// Finds the linear part of the transformation by transforming the unit vectors
+		Vector3D origin = transformation.transform(Vector3D.ZERO);
+		Vector3D xAxis = transformation.transform(new Vector3D(1, 0)).minus(origin);
+		Vector3D yAxis = transformation.transform(new Vector3D(0, 1)).minus(origin);
+		
+		// The largest stretch is the largest singular value of the linear part
+		double squareSum = xAxis.getX() * xAxis.getX() + xAxis.getY() * xAxis.getY() + 
+				yAxis.getX() * yAxis.getX() + yAxis.getY() * yAxis.getY();
+		double determinant = xAxis.getX() * yAxis.getY() - xAxis.getY() * yAxis.getX();
+		return Math.sqrt((squareSum + Math.sqrt(Math.max(0, 
+				squareSum * squareSum - 4 * determinant * determinant))) / 2);
+	}
+	
+	/**
+	 * Finds the smallest circle that contains all of the provided points. The points are 
+	 * visited in a shuffled order, which keeps the expected time linear.
+	 * @param xs The x-coordinates of the points
+	 * @param ys The y-coordinates of the points, in the same order as the x-coordinates
+	 * @return The smallest circle around the points. A zero radius circle at the origin if 
+	 * there are no points.
+	 */
+	public static Circle around(double[] xs, double[] ys)
+	{
+		int n = Math.min(xs.length, ys.length);
+		if (n == 0)
+			return new Circle(0);
+		
+		// The shuffle uses a fixed seed so that the same points always produce the same 
+		// circle
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			order[i] = i;
+		}
+		Random random = new Random(n);
+		for (int i = n - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			int temp = order[i];
+			order[i] = order[j];
+			order[j] = temp;
+		}
+		
+		// Each point that lies outside the current circle must lie on the edge of the 
+		// circle around the points visited so far
+		double[] circle = {xs[order[0]], ys[order[0]], 0};
+		for (int i = 1; i < n; i++)
+		{
+			int a = order[i];
+			if (contains(circle, xs[a], ys[a]))
+				continue;
+			
+			circle[0] = xs[a];
+			circle[1] = ys[a];
+			circle[2] = 0;
+			for (int j = 0; j < i; j++)
+			{
+				int b = order[j];
+				if (contains(circle, xs[b], ys[b]))
+					continue;
+				
+				setDiameter(circle, xs[a], ys[a], xs[b], ys[b]);
+				for (int k = 0; k < j; k++)
+				{
+					int c = order[k];
+					if (!contains(circle, xs[c], ys[c]))
+						setCircumcircle(circle, xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+				}
+			}
+		}
+		
+		// The radius is finally extended to reach each point so that rounding errors never 
+		// leave a point outside
+		double maxDistance2 = 0;
+		for (int i = 0; i < n; i++)
+		{
+			double dx = xs[i] - circle[0];
+			double dy = ys[i] - circle[1];
+			maxDistance2 = Math.max(maxDistance2, dx * dx + dy * dy);
+		}
+		
+		return new Circle(new Vector3D(circle[0], circle[1]), Math.sqrt(maxDistance2));
+	}
+	
+	private static boolean contains(double[] circle, double x, double y)
+	{
+		double dx = x - circle[0];
+		double dy = y - circle[1];
+		return dx * dx + dy * dy <= circle[2] * circle[2] * (1 + 1e-10) + 1e-12;
+	}
+	
+	private static void setDiameter(double[] circle, double x1, double y1, double x2, 
+			double y2)
+	{
+		circle[0] = (x1 + x2) / 2;
+		circle[1] = (y1 + y2) / 2;
+		circle[2] = Math.sqrt((x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1)) / 2;
+	}
+	
+	private static void setCircumcircle(double[] circle, double x1, double y1, double x2, 
+			double y2, double x3, double y3)
+	{
+		// Calculates the center relative to the first point
+		double bx = x2 - x1, by = y2 - y1;
+		double cx = x3 - x1, cy = y3 - y1;
+		double d = 2 * (bx * cy - by * cx);
+		
+		// Collinear points are enclosed by the circle around the two furthest points
+		if (Math.abs(d) < 1e-12)
+		{
+			double ab = bx * bx + by * by;
+			double ac = cx * cx + cy * cy;
+			double bc = (x3 - x2) * (x3 - x2) + (y3 - y2) * (y3 - y2);
+			if (ab >= ac && ab >= bc)
+				setDiameter(circle, x1, y1, x2, y2);
+			else if (ac >= bc)
+				setDiameter(circle, x1, y1, x3, y3);
+			else
+				setDiameter(circle, x2, y2, x3, y3);
+			return;
+		}
+		
+		double b2 = bx * bx + by * by;
+		double c2 = cx * cx + cy * cy;
+		double ux = (cy * b2 - by * c2) / d;
+		double uy = (bx * c2 - cx * b2) / d;
+		
+		circle[0] = x1 + ux;
+		circle[1] = y1 + uy;
+		circle[2] = Math.sqrt(ux * ux + uy * uy);
+	}
 }
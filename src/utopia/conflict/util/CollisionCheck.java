@@ -1,11 +1,12 @@
 package utopia.conflict.util;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 
 import utopia.conflict.event.Collidable;
+import utopia.conflict.event.CollisionInformation;
+import utopia.conflict.event.TransformedCollisionInformation;
 import utopia.genesis.util.HelpMath;
 import utopia.genesis.util.Line;
 import utopia.genesis.util.Transformation;
@@ -21,6 +22,26 @@ public class CollisionCheck
 {
 	// TODO: Not working
 	
+	// ATTRIBUTES	------------------
+	
+	/**
+	 * When the polygons have more vertices than this combined, the automatic polygon 
+	 * collision algorithm uses GJK instead of SAT
+	 * @see PolygonCollisionAlgorithm#AUTOMATIC
+	 */
+	public static final int GJK_VERTEX_THRESHOLD = 16;
+	/**
+	 * When a polygon has more vertices than this, its extreme vertices are searched by 
+	 * climbing along its edges from the previously found ones instead of going through all 
+	 * of its vertices
+	 * @see Polygon#getSupportIndex(double, double, int)
+	 */
+	public static final int HILL_CLIMBING_VERTEX_THRESHOLD = 12;
+	
+	private static final int MAX_GJK_ITERATIONS = 64;
+	private static final double EPA_TOLERANCE = 0.000001;
+	
+	
 	// CONSTRUCTOR	------------------
 	
 	private CollisionCheck()
@@ -145,26 +166,25 @@ public class CollisionCheck
 	 */
 	public static Line getCollisionEdge(Polygon p, Vector3D mtv)
 	{
-		Vector3D bestVertex = null;
+		double mtvX = mtv.getX(), mtvY = mtv.getY();
 		double bestProduct = 0;
 		int bestIndex = -1;
 		
 		// Goes through all the vertices and finds the closest one
 		for (int i = 0; i < p.getVertexAmount(); i++)
 		{
-			Vector3D v = p.getVertex(i);
-			double product = v.dotProduct(mtv);
+			double product = p.getX(i) * mtvX + p.getY(i) * mtvY;
 			
 			// The best vertex has the smallest dot product with the collision normal
-			if (bestVertex == null || product < bestProduct)
+			if (bestIndex < 0 || product < bestProduct)
 			{
-				bestVertex = v;
 				bestProduct = product;
 				bestIndex = i;
 			}
 		}
 		
 		// Finds the better edge that is connected to the vertex
+		Vector3D bestVertex = p.getVertex(bestIndex);
 		Line left = new Line(bestVertex, p.getVertex(bestIndex - 1));
 		Line right = new Line(bestVertex, p.getVertex(bestIndex + 1));
 		
@@ -288,55 +308,427 @@ public class CollisionCheck
 	public static CollisionData checkPolygonCollision(Polygon first, Polygon second, 
 			boolean calculateCollisionPoints, boolean calculateMTV)
 	{
-		// Uses collision axes from both polygons
-		List<Vector3D> firstPolygonAxes = first.getCollisionAxes();
-		List<Vector3D> axes = new ArrayList<>(firstPolygonAxes);
-		// Second polygon axes are only added where they are not paraller with some other axis
-		for (Vector3D axis : second.getCollisionAxes())
+		return checkSeparatingAxes(first, second, calculateCollisionPoints, calculateMTV, 
+				null);
+	}
+	
+	/**
+	 * Checks if the two polygons collide with each other. The extreme vertices of large 
+	 * polygons are searched starting from the ones found during the previous check.
+	 * @param first The first polygon
+	 * @param second The second polygon
+	 * @param calculateCollisionPoints Should the collision points be calculated
+	 * @param calculateMTV Should the minimum translation vector (MTV) be calculated. The 
+	 * MTV will be calculated from the first polygon's perspective
+	 * @param cache The cache that remembers the extreme vertices between the checks of this 
+	 * pair of polygons. Null if no cache should be used.
+	 * @return Do the two polygons collide with each other
+	 */
+	public static CollisionData checkPolygonCollision(Polygon first, Polygon second, 
+			boolean calculateCollisionPoints, boolean calculateMTV, SupportCache cache)
+	{
+		return checkSeparatingAxes(first, second, calculateCollisionPoints, calculateMTV, 
+				cache == null ? null : cache.getIndices(0));
+	}
+	
+	private static CollisionData checkSeparatingAxes(Polygon first, Polygon second, 
+			boolean calculateCollisionPoints, boolean calculateMTV, int[] supports)
+	{
+		// Uses collision axes from both polygons. The projections are handled as scalar 
+		// intervals along each axis so that nothing needs to be allocated until a collision 
+		// is found.
+		List<Vector3D> firstAxes = first.getCollisionAxes();
+		List<Vector3D> secondAxes = second.getCollisionAxes();
+		
+		// MTV is required for collision point checking as well
+		boolean mtvRequired = calculateMTV || calculateCollisionPoints;
+		int mtvAxisIndex = -1;
+		boolean mtvAxisReversed = false;
+		double smallestOverlap = -1;
+		
+		// The extreme vertices along the previous axis are good starting points for the 
+		// next one
+		int firstMax = 0, firstMin = 0, secondMax = 0, secondMin = 0;
+		if (supports != null)
+		{
+			firstMax = supports[0];
+			firstMin = supports[1];
+			secondMax = supports[2];
+			secondMin = supports[3];
+		}
+		
+		for (int i = 0; i < firstAxes.size() + secondAxes.size(); i++)
 		{
-			boolean skip = false;
-			for (Vector3D checkedAxis : firstPolygonAxes)
+			Vector3D axis;
+			if (i < firstAxes.size())
+				axis = firstAxes.get(i);
+			else
 			{
-				if (checkedAxis.isParallerWith(axis))
+				// Second polygon axes are only used where they are not paraller with some 
+				// axis of the first polygon
+				axis = secondAxes.get(i - firstAxes.size());
+				boolean skip = false;
+				for (int j = 0; j < firstAxes.size(); j++)
 				{
-					skip = true;
-					break;
+					if (firstAxes.get(j).isParallerWith(axis))
+					{
+						skip = true;
+						break;
+					}
 				}
+				
+				if (skip)
+					continue;
 			}
 			
-			if (!skip)
-				axes.add(axis);
+			// Projects both polygons to the axis. Only the extreme vertices are needed.
+			double axisX = axis.getX(), axisY = axis.getY();
+			firstMax = findSupport(first, axisX, axisY, firstMax);
+			firstMin = findSupport(first, -axisX, -axisY, firstMin);
+			secondMax = findSupport(second, axisX, axisY, secondMax);
+			secondMin = findSupport(second, -axisX, -axisY, secondMin);
+			
+			// The first polygon can get out either by moving backwards or forwards along 
+			// the axis
+			double backwardOverlap = (first.getX(firstMax) - second.getX(secondMin)) * axisX + 
+					(first.getY(firstMax) - second.getY(secondMin)) * axisY;
+			double forwardOverlap = (second.getX(secondMax) - first.getX(firstMin)) * axisX + 
+					(second.getY(secondMax) - first.getY(firstMin)) * axisY;
+			
+			if (supports != null)
+			{
+				supports[0] = firstMax;
+				supports[1] = firstMin;
+				supports[2] = secondMax;
+				supports[3] = secondMin;
+			}
+			
+			if (mtvRequired)
+			{
+				// Projections that only touch each other don't count as a collision here
+				if (backwardOverlap <= 0 || forwardOverlap <= 0)
+					return CollisionData.noCollision();
+				
+				// The easiest way out is the shorter one
+				double overlap = Math.min(backwardOverlap, forwardOverlap);
+				if (mtvAxisIndex < 0 || overlap < smallestOverlap)
+				{
+					mtvAxisIndex = i;
+					mtvAxisReversed = backwardOverlap < forwardOverlap;
+					smallestOverlap = overlap;
+				}
+			}
+			// If MTV isn't required, the collision check is a bit simpler
+			else if (backwardOverlap < 0 || forwardOverlap < 0)
+				return CollisionData.noCollision();
 		}
 		
-		// Checks for collision along each axis
+		// The axis is only reversed once the collision has been confirmed
 		Vector3D mtv = null;
-		double smallestOverlap = -1;
+		if (mtvRequired)
+		{
+			Vector3D mtvAxis = mtvAxisIndex < firstAxes.size() ? firstAxes.get(mtvAxisIndex) : 
+					secondAxes.get(mtvAxisIndex - firstAxes.size());
+			if (mtvAxisReversed)
+				mtvAxis = mtvAxis.reverse();
+			mtv = mtvAxis.times(smallestOverlap);
+		}
 		
-		for (Vector3D axis : axes)
+		// Checks whether collision points need to be calculated as well
+		List<Vector3D> collisionPoints = null;
+		if (calculateCollisionPoints)
+			collisionPoints = getCollisionPoints(first, second, mtv);
+		
+		return new CollisionData(true, mtv, collisionPoints);
+	}
+	
+	/**
+	 * Checks if the two polygons collide with each other using the provided algorithm
+	 * @param first The first polygon
+	 * @param second The second polygon
+	 * @param calculateCollisionPoints Should the collision points be calculated
+	 * @param calculateMTV Should the minimum translation vector (MTV) be calculated. The 
+	 * MTV will be calculated from the first polygon's perspective
+	 * @param algorithm The algorithm used for the check
+	 * @return Do the two polygons collide with each other
+	 */
+	public static CollisionData checkPolygonCollision(Polygon first, Polygon second, 
+			boolean calculateCollisionPoints, boolean calculateMTV, 
+			PolygonCollisionAlgorithm algorithm)
+	{
+		return checkPolygonCollision(first, second, calculateCollisionPoints, calculateMTV, 
+				algorithm, null);
+	}
+	
+	private static CollisionData checkPolygonCollision(Polygon first, Polygon second, 
+			boolean calculateCollisionPoints, boolean calculateMTV, 
+			PolygonCollisionAlgorithm algorithm, int[] supports)
+	{
+		if (algorithm == PolygonCollisionAlgorithm.GJK || 
+				(algorithm == PolygonCollisionAlgorithm.AUTOMATIC && 
+				first.getVertexAmount() + second.getVertexAmount() > GJK_VERTEX_THRESHOLD))
+			return checkGJK(first, second, calculateCollisionPoints, calculateMTV, supports);
+		else
+			return checkSeparatingAxes(first, second, calculateCollisionPoints, calculateMTV, 
+					supports);
+	}
+	
+	/**
+	 * Checks if the two polygons collide with each other when they are transformed into 
+	 * absolute space. The check is done in the relative space of one of the polygons: only 
+	 * the other polygon is expressed in that space, and the collision axes cached in the 
+	 * polygons are reused as they are, since a transformation only turns the axes. The 
+	 * polygons themselves are never transformed, unless collision points are requested and 
+	 * the polygons collide. The results are the same as with 
+	 * {@link #checkPolygonCollision(Polygon, Polygon, boolean, boolean)} for the transformed 
+	 * polygons.
+	 * @param first The first polygon in its relative space
+	 * @param firstTransformation The transformation that transforms the first polygon into 
+	 * absolute space. Null is considered an identity transformation.
+	 * @param second The second polygon in its relative space
+	 * @param secondTransformation The transformation that transforms the second polygon into 
+	 * absolute space. Null is considered an identity transformation.
+	 * @param calculateCollisionPoints Should the collision points be calculated (absolute 
+	 * space)
+	 * @param calculateMTV Should the minimum translation vector (MTV) be calculated. The 
+	 * MTV will be calculated from the first polygon's perspective in absolute space.
+	 * @return Do the two polygons collide with each other
+	 */
+	public static CollisionData checkPolygonCollision(Polygon first, 
+			Transformation firstTransformation, Polygon second, 
+			Transformation secondTransformation, boolean calculateCollisionPoints, 
+			boolean calculateMTV)
+	{
+		return checkInRelativeSpace(first, firstTransformation, second, secondTransformation, 
+				calculateCollisionPoints, calculateMTV, null);
+	}
+	
+	/**
+	 * Checks if the two polygons collide with each other when they are transformed into 
+	 * absolute space. The check is done in the relative space of one of the polygons. The 
+	 * extreme vertices of large polygons are searched starting from the ones found during 
+	 * the previous check.
+	 * @param first The first polygon in its relative space
+	 * @param firstTransformation The transformation that transforms the first polygon into 
+	 * absolute space. Null is considered an identity transformation.
+	 * @param second The second polygon in its relative space
+	 * @param secondTransformation The transformation that transforms the second polygon into 
+	 * absolute space. Null is considered an identity transformation.
+	 * @param calculateCollisionPoints Should the collision points be calculated (absolute 
+	 * space)
+	 * @param calculateMTV Should the minimum translation vector (MTV) be calculated. The 
+	 * MTV will be calculated from the first polygon's perspective in absolute space.
+	 * @param cache The cache that remembers the extreme vertices between the checks of this 
+	 * pair of polygons. Null if no cache should be used.
+	 * @return Do the two polygons collide with each other
+	 * @see #checkPolygonCollision(Polygon, Transformation, Polygon, Transformation, boolean, 
+	 * boolean)
+	 */
+	public static CollisionData checkPolygonCollision(Polygon first, 
+			Transformation firstTransformation, Polygon second, 
+			Transformation secondTransformation, boolean calculateCollisionPoints, 
+			boolean calculateMTV, SupportCache cache)
+	{
+		return checkInRelativeSpace(first, firstTransformation, second, secondTransformation, 
+				calculateCollisionPoints, calculateMTV, 
+				cache == null ? null : cache.getIndices(0));
+	}
+	
+	private static CollisionData checkInRelativeSpace(Polygon first, 
+			Transformation firstTransformation, Polygon second, 
+			Transformation secondTransformation, boolean calculateCollisionPoints, 
+			boolean calculateMTV, int[] supports)
+	{
+		// Distances are only preserved in a relative space that isn't sheared or unevenly 
+		// scaled
+		if (firstTransformation == null || Circle.supportsTransformation(firstTransformation))
+			return checkRelativePolygonCollision(first, firstTransformation, second, 
+					secondTransformation, calculateCollisionPoints, calculateMTV, supports);
+		else if (secondTransformation == null || 
+				Circle.supportsTransformation(secondTransformation))
+		{
+			// The polygons switch places, and so do their extreme vertices
+			swapSupports(supports);
+			CollisionData collision = checkRelativePolygonCollision(second, 
+					secondTransformation, first, firstTransformation, calculateCollisionPoints, 
+					calculateMTV, supports);
+			swapSupports(supports);
+			return collision.reversed();
+		}
+		else
+			return checkSeparatingAxes(first.transformedWith(firstTransformation), 
+					second.transformedWith(secondTransformation), calculateCollisionPoints, 
+					calculateMTV, supports);
+	}
+	
+	private static void swapSupports(int[] supports)
+	{
+		if (supports == null)
+			return;
+		
+		for (int i = 0; i < 2; i++)
 		{
-			// MTV is required for collision point checking as well
-			if (calculateMTV || calculateCollisionPoints)
+			int temp = supports[i];
+			supports[i] = supports[i + 2];
+			supports[i + 2] = temp;
+		}
+	}
+	
+	/**
+	 * Checks if the two polygons collide with each other using the Gilbert-Johnson-Keerthi 
+	 * algorithm. The penetration is calculated with the expanding polytope algorithm, if 
+	 * necessary. The results are the same as with 
+	 * {@link #checkPolygonCollision(Polygon, Polygon, boolean, boolean)}, but only the 
+	 * support points of the polygons are needed, which is faster for polygons with many 
+	 * vertices.
+	 * @param first The first polygon
+	 * @param second The second polygon
+	 * @param calculateCollisionPoints Should the collision points be calculated
+	 * @param calculateMTV Should the minimum translation vector (MTV) be calculated. The 
+	 * MTV will be calculated from the first polygon's perspective
+	 * @return Do the two polygons collide with each other
+	 */
+	public static CollisionData checkPolygonCollisionGJK(Polygon first, Polygon second, 
+			boolean calculateCollisionPoints, boolean calculateMTV)
+	{
+		return checkGJK(first, second, calculateCollisionPoints, calculateMTV, null);
+	}
+	
+	/**
+	 * Checks if the two polygons collide with each other using the Gilbert-Johnson-Keerthi 
+	 * algorithm. The support points of large polygons are searched starting from the ones 
+	 * found during the previous check.
+	 * @param first The first polygon
+	 * @param second The second polygon
+	 * @param calculateCollisionPoints Should the collision points be calculated
+	 * @param calculateMTV Should the minimum translation vector (MTV) be calculated. The 
+	 * MTV will be calculated from the first polygon's perspective
+	 * @param cache The cache that remembers the support points between the checks of this 
+	 * pair of polygons. Null if no cache should be used.
+	 * @return Do the two polygons collide with each other
+	 * @see #checkPolygonCollisionGJK(Polygon, Polygon, boolean, boolean)
+	 */
+	public static CollisionData checkPolygonCollisionGJK(Polygon first, Polygon second, 
+			boolean calculateCollisionPoints, boolean calculateMTV, SupportCache cache)
+	{
+		return checkGJK(first, second, calculateCollisionPoints, calculateMTV, 
+				cache == null ? null : cache.getIndices(0));
+	}
+	
+	private static CollisionData checkGJK(Polygon first, Polygon second, 
+			boolean calculateCollisionPoints, boolean calculateMTV, int[] supports)
+	{
+		// The support points of the previous check are good starting points
+		if (supports == null)
+			supports = new int[4];
+		
+		// The polygons collide when their Minkowski difference (first - second) contains 
+		// the origin. The simplex holds up to three points of the difference (x, y pairs).
+		double[] simplex = new double[6];
+		int simplexSize = 0;
+		
+		// Starts from the direction between the polygons
+		double dx = second.getX(0) - first.getX(0);
+		double dy = second.getY(0) - first.getY(0);
+		if (dx == 0 && dy == 0)
+			dx = 1;
+		
+		double[] point = getMinkowskiSupport(first, second, dx, dy, supports);
+		simplex[0] = point[0];
+		simplex[1] = point[1];
+		simplexSize = 1;
+		dx = -point[0];
+		dy = -point[1];
+		
+		boolean collides = false;
+		for (int iteration = 0; iteration < MAX_GJK_ITERATIONS; iteration++)
+		{
+			// The origin is at the edge of the difference
+			if (dx == 0 && dy == 0)
+				return CollisionData.noCollision();
+			
+			// If the furthest point doesn't pass the origin, the origin is outside
+			point = getMinkowskiSupport(first, second, dx, dy, supports);
+			if (point[0] * dx + point[1] * dy <= 0)
+				return CollisionData.noCollision();
+			
+			simplex[simplexSize * 2] = point[0];
+			simplex[simplexSize * 2 + 1] = point[1];
+			simplexSize ++;
+			
+			// The newest point is always the last one
+			double ax = simplex[simplexSize * 2 - 2], ay = simplex[simplexSize * 2 - 1];
+			if (simplexSize == 2)
 			{
-				Vector3D overlapVector = projectionsOverlapMTV(first.getProjection(axis), 
-						second.getProjection(axis));
-				
-				if (overlapVector == null)
-					return CollisionData.noCollision();
+				// Searches towards the origin, perpendicular to the line
+				double abx = simplex[0] - ax, aby = simplex[1] - ay;
+				double px = -aby, py = abx;
+				if (px * -ax + py * -ay < 0)
+				{
+					px = -px;
+					py = -py;
+				}
+				dx = px;
+				dy = py;
+			}
+			else
+			{
+				double bx = simplex[2], by = simplex[3], cx = simplex[0], cy = simplex[1];
+				double abx = bx - ax, aby = by - ay, acx = cx - ax, acy = cy - ay;
 				
-				double overlapAmount = overlapVector.getLength();
+				// The edge normals point away from the triangle
+				double abPerpX = -aby, abPerpY = abx;
+				if (abPerpX * acx + abPerpY * acy > 0)
+				{
+					abPerpX = -abPerpX;
+					abPerpY = -abPerpY;
+				}
+				double acPerpX = -acy, acPerpY = acx;
+				if (acPerpX * abx + acPerpY * aby > 0)
+				{
+					acPerpX = -acPerpX;
+					acPerpY = -acPerpY;
+				}
 				
-				if (mtv == null || overlapAmount < smallestOverlap)
+				// If the origin is outside an edge, the opposite point is dropped
+				if (abPerpX * -ax + abPerpY * -ay > 0)
+				{
+					simplex[0] = bx;
+					simplex[1] = by;
+					simplex[2] = ax;
+					simplex[3] = ay;
+					simplexSize = 2;
+					dx = abPerpX;
+					dy = abPerpY;
+				}
+				else if (acPerpX * -ax + acPerpY * -ay > 0)
+				{
+					simplex[2] = ax;
+					simplex[3] = ay;
+					simplexSize = 2;
+					dx = acPerpX;
+					dy = acPerpY;
+				}
+				else
 				{
-					mtv = overlapVector;
-					smallestOverlap = overlapAmount;
+					collides = true;
+					break;
 				}
 			}
-			// If MTV isn't required, the collision check is a bit simpler
-			else if (!projectionsOverlap(first.getProjection(axis), second.getProjection(axis)))
+		}
+		
+		if (!collides)
+			return CollisionData.noCollision();
+		
+		// MTV is required for collision point checking as well
+		Vector3D mtv = null;
+		if (calculateMTV || calculateCollisionPoints)
+		{
+			mtv = findPenetration(first, second, simplex, supports);
+			if (mtv == null)
 				return CollisionData.noCollision();
 		}
 		
-		// Checks whether collision points need to be calculated as well
 		List<Vector3D> collisionPoints = null;
 		if (calculateCollisionPoints)
 			collisionPoints = getCollisionPoints(first, second, mtv);
@@ -344,6 +736,136 @@ public class CollisionCheck
 		return new CollisionData(true, mtv, collisionPoints);
 	}
 	
+	/*
+	 * Checks the collision in the relative space of the first polygon. The first 
+	 * transformation must not contain shear or uneven scaling.
+	 */
+	private static CollisionData checkRelativePolygonCollision(Polygon first, 
+			Transformation firstTransformation, Polygon second, 
+			Transformation secondTransformation, boolean calculateCollisionPoints, 
+			boolean calculateMTV, int[] supports)
+	{
+		// The transformations are affine: absolute = linear * relative + translation
+		double[] firstMatrix = getAffineMatrix(firstTransformation);
+		double[] secondMatrix = getAffineMatrix(secondTransformation);
+		double determinant = firstMatrix[0] * firstMatrix[3] - firstMatrix[1] * firstMatrix[2];
+		if (determinant == 0)
+			return CollisionData.noCollision();
+		
+		// The relative transformation takes the second polygon into the first polygon's 
+		// relative space: relative = first^-1 * second
+		double i00 = firstMatrix[3] / determinant, i01 = -firstMatrix[1] / determinant;
+		double i10 = -firstMatrix[2] / determinant, i11 = firstMatrix[0] / determinant;
+		double r00 = i00 * secondMatrix[0] + i01 * secondMatrix[2];
+		double r01 = i00 * secondMatrix[1] + i01 * secondMatrix[3];
+		double r10 = i10 * secondMatrix[0] + i11 * secondMatrix[2];
+		double r11 = i10 * secondMatrix[1] + i11 * secondMatrix[3];
+		double offsetX = secondMatrix[4] - firstMatrix[4];
+		double offsetY = secondMatrix[5] - firstMatrix[5];
+		double rx = i00 * offsetX + i01 * offsetY, ry = i10 * offsetX + i11 * offsetY;
+		double relativeDeterminant = r00 * r11 - r01 * r10;
+		if (relativeDeterminant == 0)
+			return CollisionData.noCollision();
+		
+		List<Vector3D> firstAxes = first.getCollisionAxes();
+		List<Vector3D> secondAxes = second.getCollisionAxes();
+		
+		boolean mtvRequired = calculateMTV || calculateCollisionPoints;
+		double mtvAxisX = 0, mtvAxisY = 0, smallestOverlap = -1;
+		
+		int firstMax = 0, firstMin = 0, secondMax = 0, secondMin = 0;
+		if (supports != null)
+		{
+			firstMax = supports[0];
+			firstMin = supports[1];
+			secondMax = supports[2];
+			secondMin = supports[3];
+		}
+		
+		for (int i = 0; i < firstAxes.size() + secondAxes.size(); i++)
+		{
+			double axisX, axisY;
+			if (i < firstAxes.size())
+			{
+				axisX = firstAxes.get(i).getX();
+				axisY = firstAxes.get(i).getY();
+			}
+			else
+			{
+				// The normals of the second polygon turn with the inverse transpose of the 
+				// relative transformation
+				Vector3D normal = secondAxes.get(i - firstAxes.size());
+				axisX = (r11 * normal.getX() - r10 * normal.getY()) / relativeDeterminant;
+				axisY = (r00 * normal.getY() - r01 * normal.getX()) / relativeDeterminant;
+				double length = Math.sqrt(axisX * axisX + axisY * axisY);
+				axisX /= length;
+				axisY /= length;
+			}
+			
+			// Projects the first polygon to the axis as it is
+			firstMax = findSupport(first, axisX, axisY, firstMax);
+			firstMin = findSupport(first, -axisX, -axisY, firstMin);
+			
+			// The second polygon's vertices are projected to the axis turned back to its own 
+			// relative space, which is the same as projecting the transformed vertices
+			double localAxisX = r00 * axisX + r10 * axisY;
+			double localAxisY = r01 * axisX + r11 * axisY;
+			double axisOffset = rx * axisX + ry * axisY;
+			secondMax = findSupport(second, localAxisX, localAxisY, secondMax);
+			secondMin = findSupport(second, -localAxisX, -localAxisY, secondMin);
+			
+			if (supports != null)
+			{
+				supports[0] = firstMax;
+				supports[1] = firstMin;
+				supports[2] = secondMax;
+				supports[3] = secondMin;
+			}
+			
+			double backwardOverlap = first.getX(firstMax) * axisX + 
+					first.getY(firstMax) * axisY - axisOffset - 
+					second.getX(secondMin) * localAxisX - second.getY(secondMin) * localAxisY;
+			double forwardOverlap = second.getX(secondMax) * localAxisX + 
+					second.getY(secondMax) * localAxisY + axisOffset - 
+					first.getX(firstMin) * axisX - first.getY(firstMin) * axisY;
+			
+			if (mtvRequired)
+			{
+				// Projections that only touch each other don't count as a collision here
+				if (backwardOverlap <= 0 || forwardOverlap <= 0)
+					return CollisionData.noCollision();
+				
+				// The easiest way out is the shorter one
+				double overlap = Math.min(backwardOverlap, forwardOverlap);
+				if (smallestOverlap < 0 || overlap < smallestOverlap)
+				{
+					double direction = backwardOverlap < forwardOverlap ? -1 : 1;
+					mtvAxisX = axisX * direction;
+					mtvAxisY = axisY * direction;
+					smallestOverlap = overlap;
+				}
+			}
+			else if (backwardOverlap < 0 || forwardOverlap < 0)
+				return CollisionData.noCollision();
+		}
+		
+		// The MTV is transformed back into absolute space
+		Vector3D mtv = null;
+		if (mtvRequired)
+		{
+			double localX = mtvAxisX * smallestOverlap, localY = mtvAxisY * smallestOverlap;
+			mtv = new Vector3D(firstMatrix[0] * localX + firstMatrix[1] * localY, 
+					firstMatrix[2] * localX + firstMatrix[3] * localY);
+		}
+		
+		List<Vector3D> collisionPoints = null;
+		if (calculateCollisionPoints)
+			collisionPoints = getCollisionPoints(transform(first, firstTransformation), 
+					transform(second, secondTransformation), mtv);
+		
+		return new CollisionData(true, mtv, collisionPoints);
+	}
+	
 	/**
 	 * Checks if the two objects collide with each other and returns the collected data
 	 * @param first The first object
@@ -356,189 +878,893 @@ public class CollisionCheck
 	public static CollisionData checkCollidableCollisions(Collidable first, Collidable second, 
 			boolean calculateMTV, boolean calculateCollisionPoints)
 	{
-		// First checks the bounding boxes, if necessary
-		if (first.getCollisionInformation().usesBoundingBox() || 
-				second.getCollisionInformation().usesBoundingBox())
-		{
-			// The check is done in absolute space
-			if (!checkPolygonCollision(
-					first.getCollisionInformation().getBoundingBox().transformedWith(
-					first.getTransformation()), 
-					second.getCollisionInformation().getBoundingBox().transformedWith(
-					second.getTransformation()), false, false).collided())
-				return CollisionData.noCollision();
-		}
+		return checkCollisions(new TransformedCollisionInformation(first), 
+				new TransformedCollisionInformation(second), calculateMTV, 
+				calculateCollisionPoints);
+	}
+	
+	/**
+	 * Checks if the two transformed collision informations collide with each other and 
+	 * returns the collected data. The informations keep the shapes they have transformed, 
+	 * so using the same instances in multiple checks is cheaper.
+	 * @param first The first collision information in absolute space
+	 * @param second The second collision information in absolute space
+	 * @param calculateMTV Should the minimum translation vector (MTV) be calculated
+	 * @param calculateCollisionPoints In case of a collision, should the collision points be 
+	 * calculated
+	 * @return The data collected during the collision check
+	 */
+	public static CollisionData checkCollisions(TransformedCollisionInformation first, 
+			TransformedCollisionInformation second, boolean calculateMTV, 
+			boolean calculateCollisionPoints)
+	{
+		return checkCollisions(first, second, calculateMTV, calculateCollisionPoints, 
+				PolygonCollisionAlgorithm.SAT);
+	}
+	
+	/**
+	 * Checks if the two transformed collision informations collide with each other and 
+	 * returns the collected data. The informations keep the shapes they have transformed, 
+	 * so using the same instances in multiple checks is cheaper.
+	 * @param first The first collision information in absolute space
+	 * @param second The second collision information in absolute space
+	 * @param calculateMTV Should the minimum translation vector (MTV) be calculated
+	 * @param calculateCollisionPoints In case of a collision, should the collision points be 
+	 * calculated
+	 * @param algorithm The algorithm used for checking collisions between the polygons
+	 * @return The data collected during the collision check
+	 */
+	public static CollisionData checkCollisions(TransformedCollisionInformation first, 
+			TransformedCollisionInformation second, boolean calculateMTV, 
+			boolean calculateCollisionPoints, PolygonCollisionAlgorithm algorithm)
+	{
+		return checkCollisions(first, second, calculateMTV, calculateCollisionPoints, 
+				algorithm, null);
+	}
+	
+	/**
+	 * Checks if the two transformed collision informations collide with each other and 
+	 * returns the collected data. The extreme vertices of large polygons are searched 
+	 * starting from the ones found during the previous check.
+	 * @param first The first collision information in absolute space
+	 * @param second The second collision information in absolute space
+	 * @param calculateMTV Should the minimum translation vector (MTV) be calculated
+	 * @param calculateCollisionPoints In case of a collision, should the collision points be 
+	 * calculated
+	 * @param algorithm The algorithm used for checking collisions between the polygons
+	 * @param cache The cache that remembers the extreme vertices between the checks of the 
+	 * two informations. Null if no cache should be used.
+	 * @return The data collected during the collision check
+	 */
+	public static CollisionData checkCollisions(TransformedCollisionInformation first, 
+			TransformedCollisionInformation second, boolean calculateMTV, 
+			boolean calculateCollisionPoints, PolygonCollisionAlgorithm algorithm, 
+			SupportCache cache)
+	{
+		CollisionInformation firstInformation = first.getInformation();
+		CollisionInformation secondInformation = second.getInformation();
 		
-		// Checks whether to use circles, polygons or both
-		boolean polygonUsed = false, circlesUsed = false, transformCircles = false;
+		// First checks the bounding boxes, if necessary. All of the shapes lie within the 
+		// bounds in absolute space, so comparing them is enough for rejecting the pair.
+		if ((firstInformation.usesBoundingBox() || secondInformation.usesBoundingBox()) && 
+				!first.getBounds().overlaps(second.getBounds()))
+			return CollisionData.noCollision();
 		
-		if (first.getCollisionInformation().usesCircles() || 
-				second.getCollisionInformation().usesCircles())
-			circlesUsed = true;
-		if (first.getCollisionInformation().usesPolygons() || 
-				second.getCollisionInformation().usesPolygons())
-			polygonUsed = true;
-		if (circlesUsed && (polygonUsed || (
-				!Circle.supportsTransformation(first.getTransformation()) || 
-				!Circle.supportsTransformation(second.getTransformation()))))
-			transformCircles = true;
+		// The bounding circles don't grow when the shapes rotate, so they are checked as well
+		if (!first.getBoundingCircle().overlaps(second.getBoundingCircle()))
+			return CollisionData.noCollision();
 		
-		// if only circles are used and they are not transformed, checks circle collision
-		if (circlesUsed && !transformCircles)
+		// Circles are only converted into polygons when the transformation would make them 
+		// ellipsoid
+		if (circlesAreTransformed(first, second))
 		{
-			for (Circle circle1 : first.getCollisionInformation().getCircles())
+			if (algorithm == PolygonCollisionAlgorithm.RELATIVE_SAT)
 			{
-				Circle transformedCircle1 = circle1.transformedWith(first.getTransformation());
-				for (Circle circle2 : second.getCollisionInformation().getCircles())
-				{
-					CollisionData cData = checkCircleCollision(transformedCircle1, 
-							circle2.transformedWith(second.getTransformation()), 
-							calculateCollisionPoints, calculateMTV);
-					if (cData.collided())
-						return cData;
-				}
+				List<Polygon> firstPolygons = new ArrayList<>(firstInformation.getPolygons());
+				firstPolygons.addAll(first.getRelativeCirclePolygons());
+				List<Polygon> secondPolygons = new ArrayList<>(
+						secondInformation.getPolygons());
+				secondPolygons.addAll(second.getRelativeCirclePolygons());
+				
+				return checkRelativeMultiPolygonCollision(firstPolygons, 
+						first.getTransformation(), getPieceBoundingCircles(first), 
+						secondPolygons, second.getTransformation(), 
+						getPieceBoundingCircles(second), calculateCollisionPoints, calculateMTV, 
+						cache);
 			}
+			
+			List<Polygon> firstPolygons = new ArrayList<>(first.getPolygons());
+			firstPolygons.addAll(first.getCirclePolygons());
+			List<Polygon> secondPolygons = new ArrayList<>(second.getPolygons());
+			secondPolygons.addAll(second.getCirclePolygons());
+			
+			return checkMultiPolygonCollision(firstPolygons, getPieceBoundingCircles(first), 
+					secondPolygons, getPieceBoundingCircles(second), calculateCollisionPoints, 
+					calculateMTV, algorithm, cache);
 		}
-		// Otherwise uses polygons instead
+		
+		// Otherwise checks each pair of shapes with the exact check
+		CollisionData cData;
+		List<Circle> firstPolygonCircles = first.getPolygonBoundingCircles();
+		List<Circle> secondPolygonCircles = second.getPolygonBoundingCircles();
+		if (algorithm == PolygonCollisionAlgorithm.RELATIVE_SAT)
+			cData = checkRelativeMultiPolygonCollision(firstInformation.getPolygons(), 
+					first.getTransformation(), firstPolygonCircles, 
+					secondInformation.getPolygons(), second.getTransformation(), 
+					secondPolygonCircles, calculateCollisionPoints, calculateMTV, cache);
 		else
+			cData = checkMultiPolygonCollision(first.getPolygons(), firstPolygonCircles, 
+					second.getPolygons(), secondPolygonCircles, calculateCollisionPoints, 
+					calculateMTV, algorithm, cache);
+		if (cData.collided())
+			return cData;
+		
+		List<Polygon> firstPolygons = first.getPolygons();
+		for (int i = 0; i < firstPolygons.size(); i++)
 		{
-			// First checks for collisions between the basic polygons
-			CollisionData cData = checkMultiPolygonCollision(
-					first.getCollisionInformation().getPolygons(), first.getTransformation(), 
-					second.getCollisionInformation().getPolygons(), second.getTransformation(), 
-					calculateCollisionPoints, calculateMTV);
-			if (cData.collided())
-				return cData;
-			
-			// Next adds the circle polygons to the mix, if necessary
-			if (circlesUsed)
-			{
-				List<Polygon> firstCirclePolygons = 
-						first.getCollisionInformation().getCirclePolygons();
-				cData = checkMultiPolygonCollision(firstCirclePolygons, 
-						first.getTransformation(), 
-						second.getCollisionInformation().getPolygons(), 
-						second.getTransformation(), calculateCollisionPoints, calculateMTV);
+			for (Circle circle : second.getCircles())
+			{
+				// Only checks the pieces whose bounding circles overlap
+				if (!firstPolygonCircles.get(i).overlaps(circle))
+					continue;
+				
+				cData = checkPolygonCircleCollision(firstPolygons.get(i), circle, 
+						calculateCollisionPoints, calculateMTV);
 				if (cData.collided())
 					return cData;
+			}
+		}
+		
+		List<Polygon> secondPolygons = second.getPolygons();
+		for (Circle circle : first.getCircles())
+		{
+			for (int i = 0; i < secondPolygons.size(); i++)
+			{
+				if (!secondPolygonCircles.get(i).overlaps(circle))
+					continue;
 				
-				if (second.getCollisionInformation().usesCircles())
-				{
-					List<Polygon> secondCirclePolygons = 
-							second.getCollisionInformation().getCirclePolygons();
-					firstCirclePolygons.addAll(first.getCollisionInformation().getPolygons());
-					cData = checkMultiPolygonCollision(firstCirclePolygons, 
-							first.getTransformation(), secondCirclePolygons, 
-							second.getTransformation(), calculateCollisionPoints, calculateMTV);
-					
+				// The check is made from the polygon's perspective
+				cData = checkPolygonCircleCollision(secondPolygons.get(i), circle, 
+						calculateCollisionPoints, calculateMTV);
+				if (cData.collided())
+					return cData.reversed();
+			}
+			
+			for (Circle circle2 : second.getCircles())
+			{
+				cData = checkCircleCollision(circle, circle2, calculateCollisionPoints, 
+						calculateMTV);
+				if (cData.collided())
 					return cData;
-				}
 			}
-			else
-				return cData;
 		}
 		
 		return CollisionData.noCollision();
 	}
 	
 	private static CollisionData checkMultiPolygonCollision(
-			Collection<? extends Polygon> firstPolygons, Transformation firstTransformation, 
-			Collection<? extends Polygon> secondPolygons, Transformation secondTransformation, 
-			boolean calculateCollisionPoints, boolean calculateMTV)
+			List<? extends Polygon> firstPolygons, List<Circle> firstCircles, 
+			List<? extends Polygon> secondPolygons, List<Circle> secondCircles, 
+			boolean calculateCollisionPoints, boolean calculateMTV, 
+			PolygonCollisionAlgorithm algorithm, SupportCache cache)
 	{
-		if (firstPolygons.isEmpty() || secondPolygons.isEmpty())
-			return CollisionData.noCollision();
+		// The polygons are already in absolute space. Each pair has its own place in the 
+		// cache, even when the pair is skipped.
+		int pairIndex = 0;
+		for (int i = 0; i < firstPolygons.size(); i++)
+		{
+			Polygon polygon1 = firstPolygons.get(i);
+			for (int j = 0; j < secondPolygons.size(); j++)
+			{
+				int[] supports = cache == null ? null : cache.getIndices(pairIndex++);
+				
+				// Only the pieces whose bounding circles overlap can collide
+				if (!firstCircles.get(i).overlaps(secondCircles.get(j)))
+					continue;
+				
+				CollisionData colData = checkPolygonCollision(polygon1, secondPolygons.get(j), 
+						calculateCollisionPoints, calculateMTV, algorithm, supports);
+				if (colData.collided())
+					return colData;
+			}
+		}
 		
-		List<Polygon> transformedSecondPolygons = null;
-		for (Polygon polygon1 : firstPolygons)
+		return CollisionData.noCollision();
+	}
+	
+	private static CollisionData checkRelativeMultiPolygonCollision(
+			List<? extends Polygon> firstPolygons, Transformation firstTransformation, 
+			List<Circle> firstCircles, List<? extends Polygon> secondPolygons, 
+			Transformation secondTransformation, List<Circle> secondCircles, 
+			boolean calculateCollisionPoints, boolean calculateMTV, SupportCache cache)
+	{
+		// The polygons are in their relative spaces, but the bounding circles are in 
+		// absolute space
+		int pairIndex = 0;
+		for (int i = 0; i < firstPolygons.size(); i++)
 		{
-			Polygon transformedPolygon1 = polygon1.transformedWith(firstTransformation);
-			if (transformedSecondPolygons == null)
+			Polygon polygon1 = firstPolygons.get(i);
+			for (int j = 0; j < secondPolygons.size(); j++)
+			{
+				int[] supports = cache == null ? null : cache.getIndices(pairIndex++);
+				if (!firstCircles.get(i).overlaps(secondCircles.get(j)))
+					continue;
+				
+				CollisionData colData = checkInRelativeSpace(polygon1, firstTransformation, 
+						secondPolygons.get(j), secondTransformation, calculateCollisionPoints, 
+						calculateMTV, supports);
+				if (colData.collided())
+					return colData;
+			}
+		}
+		
+		return CollisionData.noCollision();
+	}
+	
+	private static List<Circle> getPieceBoundingCircles(
+			TransformedCollisionInformation information)
+	{
+		// The circles are in the same order as the polygons followed by the circle polygons
+		List<Circle> circles = new ArrayList<>(information.getPolygonBoundingCircles());
+		circles.addAll(information.getCircleBoundingCircles());
+		return circles;
+	}
+	
+	private static boolean circlesAreTransformed(TransformedCollisionInformation first, 
+			TransformedCollisionInformation second)
+	{
+		return (first.getInformation().usesCircles() || 
+				second.getInformation().usesCircles()) && 
+				(!first.circlesSupportTransformation() || 
+				!second.circlesSupportTransformation());
+	}
+	
+	/**
+	 * Finds the moment when the first collision information comes into contact with the 
+	 * second one while moving along a straight line. The first information is placed at 
+	 * its final position and the movement is traced back from there. The shapes only 
+	 * translate, so any rotation or scaling during the movement is not considered.
+	 * @param first The first collision information at the end of the movement (absolute 
+	 * space)
+	 * @param second The second collision information (absolute space)
+	 * @param displacement How much the first information moved in relation to the second 
+	 * information
+	 * @return How far along the movement the two came into contact, between 0 (the 
+	 * beginning) and 1 (the end). 0 if they were already in contact at the beginning. 
+	 * Negative if they never came into contact.
+	 */
+	public static double findTimeOfImpact(TransformedCollisionInformation first, 
+			TransformedCollisionInformation second, Vector3D displacement)
+	{
+		// The swept area of the first information must touch the second information
+		Bounds end = first.getBounds();
+		Bounds start = new Bounds(end.getMinX() - displacement.getX(), 
+				end.getMinY() - displacement.getY(), end.getMaxX() - displacement.getX(), 
+				end.getMaxY() - displacement.getY());
+		if (!start.combinedWith(end).overlaps(second.getBounds()))
+			return -1;
+		
+		CollisionInformation firstInformation = first.getInformation();
+		CollisionInformation secondInformation = second.getInformation();
+		
+		// Uses the same shapes as the collision check
+		double earliest = -1;
+		if (circlesAreTransformed(first, second))
+		{
+			List<Polygon> firstPolygons = new ArrayList<>(first.getPolygons());
+			firstPolygons.addAll(first.getCirclePolygons());
+			List<Polygon> secondPolygons = new ArrayList<>(second.getPolygons());
+			secondPolygons.addAll(second.getCirclePolygons());
+			
+			for (Polygon polygon1 : firstPolygons)
 			{
-				transformedSecondPolygons = new ArrayList<>();
 				for (Polygon polygon2 : secondPolygons)
 				{
-					Polygon transformedPolygon2 = polygon2.transformedWith(secondTransformation);
-					transformedSecondPolygons.add(transformedPolygon2);
-					
-					CollisionData colData = checkPolygonCollision(transformedPolygon1, 
-							transformedPolygon2, calculateCollisionPoints, calculateMTV);
-					if (colData.collided())
-						return colData;
+					earliest = getEarlierImpact(earliest, findTimeOfImpact(polygon1, 
+							polygon2, displacement));
 				}
 			}
-			else
+			
+			return earliest;
+		}
+		
+		for (Polygon polygon1 : first.getPolygons())
+		{
+			for (Polygon polygon2 : second.getPolygons())
+			{
+				earliest = getEarlierImpact(earliest, findTimeOfImpact(polygon1, polygon2, 
+						displacement));
+			}
+			for (Circle circle2 : second.getCircles())
 			{
-				for (Polygon transformedPolygon2 : transformedSecondPolygons)
+				earliest = getEarlierImpact(earliest, findTimeOfImpact(polygon1, circle2, 
+						displacement));
+			}
+		}
+		
+		// The circle moving towards the polygon is the same as the polygon moving towards 
+		// the circle in the opposite direction
+		Vector3D reverseDisplacement = displacement.reverse();
+		for (Circle circle1 : first.getCircles())
+		{
+			for (Polygon polygon2 : second.getPolygons())
+			{
+				earliest = getEarlierImpact(earliest, findTimeOfImpact(polygon2, circle1, 
+						reverseDisplacement));
+			}
+			for (Circle circle2 : second.getCircles())
+			{
+				earliest = getEarlierImpact(earliest, findTimeOfImpact(circle1, circle2, 
+						displacement));
+			}
+		}
+		
+		return earliest;
+	}
+	
+	/**
+	 * Finds the moment when the first convex polygon comes into contact with the second 
+	 * convex polygon while moving along a straight line
+	 * @param first The first polygon at the end of the movement
+	 * @param second The second polygon
+	 * @param displacement How much the first polygon moved in relation to the second polygon
+	 * @return How far along the movement the two came into contact, between 0 (the 
+	 * beginning) and 1 (the end). 0 if they were already in contact at the beginning. 
+	 * Negative if they never came into contact.
+	 */
+	public static double findTimeOfImpact(Polygon first, Polygon second, Vector3D displacement)
+	{
+		// The polygons are in contact when their projections overlap on every axis. On each 
+		// axis, the projections overlap during a single period of the movement.
+		double entry = 0, exit = 1;
+		for (Polygon axisSource : new Polygon[] {first, second})
+		{
+			for (Vector3D axis : axisSource.getCollisionAxes())
+			{
+				double[] firstProjection = project(first, axis);
+				double[] secondProjection = project(second, axis);
+				double speed = displacement.dotProduct(axis);
+				
+				// The first polygon starts at its final position minus the displacement
+				double startMin = firstProjection[0] - speed;
+				double startMax = firstProjection[1] - speed;
+				
+				if (speed == 0)
 				{
-					CollisionData colData = checkPolygonCollision(transformedPolygon1, 
-							transformedPolygon2, calculateCollisionPoints, calculateMTV);
-					if (colData.collided())
-						return colData;
+					if (startMax < secondProjection[0] || startMin > secondProjection[1])
+						return -1;
+				}
+				else
+				{
+					double t1 = (secondProjection[0] - startMax) / speed;
+					double t2 = (secondProjection[1] - startMin) / speed;
+					entry = Math.max(entry, Math.min(t1, t2));
+					exit = Math.min(exit, Math.max(t1, t2));
+					
+					if (entry > exit)
+						return -1;
 				}
 			}
 		}
 		
-		return CollisionData.noCollision();
+		return entry;
 	}
 	
-	/*
-	 * Checks whether a polygon collides with a circle
-	 * @param polygon A polygon
+	/**
+	 * Finds the moment when the first circle comes into contact with the second circle while 
+	 * moving along a straight line
+	 * @param first The first circle at the end of the movement
+	 * @param second The second circle
+	 * @param displacement How much the first circle moved in relation to the second circle
+	 * @return How far along the movement the two came into contact, between 0 (the 
+	 * beginning) and 1 (the end). 0 if they were already in contact at the beginning. 
+	 * Negative if they never came into contact.
+	 */
+	public static double findTimeOfImpact(Circle first, Circle second, Vector3D displacement)
+	{
+		// The circles touch when the center of the first circle enters a circle with the 
+		// combined radius around the second circle
+		RaycastHit hit = raycast(second.widened(first.getRadius()), 
+				first.getCenter().minus(displacement), first.getCenter());
+		if (hit == null)
+			return -1;
+		else
+			return hit.getFraction();
+	}
+	
+	/**
+	 * Finds the moment when a convex polygon comes into contact with a circle while moving 
+	 * along a straight line
+	 * @param first The polygon at the end of the movement
+	 * @param second The circle
+	 * @param displacement How much the polygon moved in relation to the circle
+	 * @return How far along the movement the two came into contact, between 0 (the 
+	 * beginning) and 1 (the end). 0 if they were already in contact at the beginning. 
+	 * Negative if they never came into contact.
+	 */
+	public static double findTimeOfImpact(Polygon first, Circle second, Vector3D displacement)
+	{
+		// In the polygon's frame of reference, the circle's center moves against the 
+		// displacement. The contact begins when the center reaches the polygon widened by 
+		// the circle's radius.
+		Vector3D end = second.getCenter();
+		Vector3D start = end.plus(displacement);
+		double radius = second.getRadius();
+		if (checkPolygonCircleCollision(first, second.withCenter(start), false, 
+				false).collided())
+			return 0;
+		
+		// The widened polygon consists of the edges moved outwards by the radius and of 
+		// circles around the vertices
+		double[] centroid = getAverageVertex(first);
+		double earliest = -1;
+		int vertexAmount = first.getVertexAmount();
+		for (int i = 0; i < vertexAmount; i++)
+		{
+			int next = (i + 1) % vertexAmount;
+			double vx = first.getX(i), vy = first.getY(i);
+			double ex = first.getX(next) - vx, ey = first.getY(next) - vy;
+			if (ex == 0 && ey == 0)
+				continue;
+			
+			double[] normal = getOutwardNormal(vx, vy, ex, ey, centroid);
+			double ax = vx + normal[0] * radius, ay = vy + normal[1] * radius;
+			earliest = getEarlierImpact(earliest, getSegmentIntersection(start.getX(), 
+					start.getY(), end.getX() - start.getX(), end.getY() - start.getY(), 
+					ax, ay, ex, ey));
+			
+			RaycastHit hit = raycast(new Circle(first.getVertex(i), radius), start, end);
+			if (hit != null)
+				earliest = getEarlierImpact(earliest, hit.getFraction());
+		}
+		
+		return earliest;
+	}
+	
+	private static double[] getAffineMatrix(Transformation transformation)
+	{
+		if (transformation == null)
+			return new double[] {1, 0, 0, 1, 0, 0};
+		
+		// The linear part is found by transforming the unit vectors. The matrix is presented 
+		// row by row, followed by the translation.
+		Vector3D origin = transformation.transform(Vector3D.ZERO);
+		Vector3D xAxis = transformation.transform(new Vector3D(1, 0)).minus(origin);
+		Vector3D yAxis = transformation.transform(new Vector3D(0, 1)).minus(origin);
+		return new double[] {xAxis.getX(), yAxis.getX(), xAxis.getY(), yAxis.getY(), 
+				origin.getX(), origin.getY()};
+	}
+	
+	private static Polygon transform(Polygon polygon, Transformation transformation)
+	{
+		if (transformation == null)
+			return polygon;
+		else
+			return polygon.transformedWith(transformation);
+	}
+	
+	private static double getEarlierImpact(double first, double second)
+	{
+		if (first < 0 || (second >= 0 && second < first))
+			return second;
+		else
+			return first;
+	}
+	
+	private static double[] project(Polygon polygon, Vector3D axis)
+	{
+		double axisX = axis.getX(), axisY = axis.getY();
+		double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < polygon.getVertexAmount(); i++)
+		{
+			double projection = polygon.getX(i) * axisX + polygon.getY(i) * axisY;
+			min = Math.min(min, projection);
+			max = Math.max(max, projection);
+		}
+		
+		return new double[] {min, max};
+	}
+	
+	/**
+	 * Checks whether a convex polygon collides with a circle. The check is exact, the circle 
+	 * isn't converted into a polygon. This is equivalent to a separating axis check that 
+	 * uses the polygon's axes plus the axis from the circle's center to the closest point 
+	 * of the polygon.
+	 * @param polygon A convex polygon
 	 * @param circle A circle
 	 * @param calculateCollisionPoints Should the collision points be calculated
 	 * @param calculateMTV Should the minimum translation vector (MTV) be calculated. The 
 	 * MTV will be calculated from the polygon's perspective
-	 * @return Does the polygon collide with the circle
+	 * @return Does the polygon collide with the circle. There is a single collision point: 
+	 * the point of the polygon's edges closest to the circle's center.
 	 */
-	/*
 	public static CollisionData checkPolygonCircleCollision(Polygon polygon, Circle circle, 
 			boolean calculateCollisionPoints, boolean calculateMTV)
 	{
-		// TODO: This won't work. One needs to either change the polygon into a circle or 
-		// vice versa
+		double centerX = circle.getCenter().getX(), centerY = circle.getCenter().getY();
+		double radius = circle.getRadius();
+		double[] centroid = getAverageVertex(polygon);
 		
-		// Uses collision axes from the polygon
-		// Checks for collision along each axis
-		Vector3D mtv = null;
-		double smallestOverlap = -1;
+		// Finds the point on the edges closest to the circle's center. Also finds the edge 
+		// the center is nearest to in case the center lies inside the polygon.
+		double closestX = 0, closestY = 0, closestDistanceSquared = Double.POSITIVE_INFINITY;
+		double depth = Double.POSITIVE_INFINITY, depthNormalX = 0, depthNormalY = 0;
+		boolean centerInside = true;
+		int vertexAmount = polygon.getVertexAmount();
+		for (int i = 0; i < vertexAmount; i++)
+		{
+			int next = (i + 1) % vertexAmount;
+			double ax = polygon.getX(i), ay = polygon.getY(i);
+			double ex = polygon.getX(next) - ax, ey = polygon.getY(next) - ay;
+			double lengthSquared = ex * ex + ey * ey;
+			if (lengthSquared == 0)
+				continue;
+			
+			double t = ((centerX - ax) * ex + (centerY - ay) * ey) / lengthSquared;
+			t = Math.max(0, Math.min(1, t));
+			double px = ax + ex * t, py = ay + ey * t;
+			double distanceSquared = (centerX - px) * (centerX - px) + 
+					(centerY - py) * (centerY - py);
+			if (distanceSquared < closestDistanceSquared)
+			{
+				closestDistanceSquared = distanceSquared;
+				closestX = px;
+				closestY = py;
+			}
+			
+			// The center is inside when it is behind each edge
+			double[] normal = getOutwardNormal(ax, ay, ex, ey, centroid);
+			double side = (centerX - ax) * normal[0] + (centerY - ay) * normal[1];
+			if (side > 0)
+				centerInside = false;
+			else if (-side < depth)
+			{
+				depth = -side;
+				depthNormalX = normal[0];
+				depthNormalY = normal[1];
+			}
+		}
 		
-		for (Vector3D axis : polygon.getCollisionAxes())
+		Vector3D mtv = null;
+		List<Vector3D> collisionPoints = null;
+		if (centerInside)
 		{
+			// The polygon is pushed so that its nearest edge passes the whole circle
 			if (calculateMTV)
+				mtv = new Vector3D(-depthNormalX * (depth + radius), 
+						-depthNormalY * (depth + radius));
+			if (calculateCollisionPoints)
 			{
-				Vector3D overlapVector = projectionsOverlapMTV(polygon.getProjection(axis), 
-						circle.getProjection(axis));
-				
-				if (overlapVector == null)
-					return CollisionData.noCollision();
-				
-				double overlapAmount = overlapVector.getLength();
-				
-				if (mtv == null || overlapAmount < smallestOverlap)
+				collisionPoints = new ArrayList<>();
+				collisionPoints.add(new Vector3D(centerX + depthNormalX * depth, 
+						centerY + depthNormalY * depth));
+			}
+		}
+		else
+		{
+			double distance = Math.sqrt(closestDistanceSquared);
+			if (distance > radius)
+				return CollisionData.noCollision();
+			
+			// The polygon is pushed away from the center
+			if (calculateMTV)
+				mtv = new Vector3D((closestX - centerX) / distance * (radius - distance), 
+						(closestY - centerY) / distance * (radius - distance));
+			if (calculateCollisionPoints)
+			{
+				collisionPoints = new ArrayList<>();
+				collisionPoints.add(new Vector3D(closestX, closestY));
+			}
+		}
+		
+		return new CollisionData(true, mtv, collisionPoints);
+	}
+	
+	/**
+	 * Casts a line segment against a polygon and finds the point where it first hits the 
+	 * polygon's edges
+	 * @param polygon The polygon that is tested
+	 * @param start The start point of the segment
+	 * @param end The end point of the segment
+	 * @return The first hit along the segment or null if the segment doesn't hit the polygon. 
+	 * If the segment starts inside the polygon, the hit is at the start point and its normal 
+	 * points against the segment.
+	 */
+	public static RaycastHit raycast(Polygon polygon, Vector3D start, Vector3D end)
+	{
+		double startX = start.getX(), startY = start.getY();
+		double deltaX = end.getX() - startX, deltaY = end.getY() - startY;
+		
+		if (containsPoint(polygon, startX, startY))
+			return new RaycastHit(start, getReverseDirection(deltaX, deltaY), 0, 0);
+		
+		// Finds the nearest edge that crosses the segment
+		double nearestFraction = Double.POSITIVE_INFINITY;
+		double edgeX = 0, edgeY = 0;
+		int vertexAmount = polygon.getVertexAmount();
+		for (int i = 0; i < vertexAmount; i++)
+		{
+			int next = (i + 1) % vertexAmount;
+			double ex = polygon.getX(next) - polygon.getX(i);
+			double ey = polygon.getY(next) - polygon.getY(i);
+			
+			double segmentFraction = getSegmentIntersection(startX, startY, deltaX, deltaY, 
+					polygon.getX(i), polygon.getY(i), ex, ey);
+			if (segmentFraction >= 0 && segmentFraction < nearestFraction)
+			{
+				nearestFraction = segmentFraction;
+				edgeX = ex;
+				edgeY = ey;
+			}
+		}
+		
+		if (Double.isInfinite(nearestFraction))
+			return null;
+		
+		// The normal is perpendicular to the edge and points against the segment
+		double edgeLength = Math.sqrt(edgeX * edgeX + edgeY * edgeY);
+		double normalX = edgeY / edgeLength, normalY = -edgeX / edgeLength;
+		if (normalX * deltaX + normalY * deltaY > 0)
+		{
+			normalX = -normalX;
+			normalY = -normalY;
+		}
+		
+		return new RaycastHit(new Vector3D(startX + deltaX * nearestFraction, 
+				startY + deltaY * nearestFraction), new Vector3D(normalX, normalY), 
+				nearestFraction, nearestFraction * Math.sqrt(deltaX * deltaX + deltaY * deltaY));
+	}
+	
+	/**
+	 * Casts a line segment against a circle and finds the point where it first hits the 
+	 * circle
+	 * @param circle The circle that is tested
+	 * @param start The start point of the segment
+	 * @param end The end point of the segment
+	 * @return The first hit along the segment or null if the segment doesn't hit the circle. 
+	 * If the segment starts inside the circle, the hit is at the start point and its normal 
+	 * points against the segment.
+	 */
+	public static RaycastHit raycast(Circle circle, Vector3D start, Vector3D end)
+	{
+		double deltaX = end.getX() - start.getX(), deltaY = end.getY() - start.getY();
+		double offsetX = start.getX() - circle.getCenter().getX();
+		double offsetY = start.getY() - circle.getCenter().getY();
+		double radius = circle.getRadius();
+		
+		// Solves the fraction from |start + delta * t - center| = radius
+		double a = deltaX * deltaX + deltaY * deltaY;
+		double b = 2 * (offsetX * deltaX + offsetY * deltaY);
+		double c = offsetX * offsetX + offsetY * offsetY - radius * radius;
+		
+		if (c <= 0)
+			return new RaycastHit(start, getReverseDirection(deltaX, deltaY), 0, 0);
+		
+		double discriminant = b * b - 4 * a * c;
+		if (a == 0 || discriminant < 0)
+			return null;
+		
+		double fraction = (-b - Math.sqrt(discriminant)) / (2 * a);
+		if (fraction < 0 || fraction > 1)
+			return null;
+		
+		double hitOffsetX = offsetX + deltaX * fraction, hitOffsetY = offsetY + deltaY * fraction;
+		return new RaycastHit(new Vector3D(start.getX() + deltaX * fraction, 
+				start.getY() + deltaY * fraction), new Vector3D(hitOffsetX / radius, 
+				hitOffsetY / radius), fraction, fraction * Math.sqrt(a));
+	}
+	
+	/**
+	 * Casts a line segment against the shapes of transformed collision information and 
+	 * finds the point where it first hits any of them
+	 * @param information The collision information in absolute space
+	 * @param start The start point of the segment (absolute space)
+	 * @param end The end point of the segment (absolute space)
+	 * @return The first hit along the segment or null if the segment doesn't hit any of the 
+	 * shapes
+	 */
+	public static RaycastHit raycast(TransformedCollisionInformation information, 
+			Vector3D start, Vector3D end)
+	{
+		// Segments that miss the bounds can't hit any of the shapes either
+		if (information.getBounds().getEntryFraction(start, end) < 0)
+			return null;
+		
+		CollisionInformation basicInformation = information.getInformation();
+		RaycastHit nearest = null;
+		
+		if (basicInformation.usesPolygons())
+		{
+			for (Polygon polygon : information.getPolygons())
+			{
+				nearest = getNearerHit(nearest, raycast(polygon, start, end));
+			}
+		}
+		if (basicInformation.usesCircles())
+		{
+			// Circles that would become ellipsoid are tested as polygons
+			if (information.circlesSupportTransformation())
+			{
+				for (Circle circle : information.getCircles())
 				{
-					mtv = overlapVector;
-					smallestOverlap = overlapAmount;
+					nearest = getNearerHit(nearest, raycast(circle, start, end));
+				}
+			}
+			else
+			{
+				for (Polygon polygon : information.getCirclePolygons())
+				{
+					nearest = getNearerHit(nearest, raycast(polygon, start, end));
 				}
 			}
-			// If MTV isn't required, the collision check is a bit simpler
-			else if (!projectionsOverlap(polygon.getProjection(axis), circle.getProjection(axis)))
-				return new CollisionData(false, null, null);
 		}
 		
-		// Checks whether collision points need to be calculated as well
-		List<Vector3D> collisionPoints = null;
-		if (calculateCollisionPoints)
+		return nearest;
+	}
+	
+	private static RaycastHit getNearerHit(RaycastHit first, RaycastHit second)
+	{
+		if (first == null || (second != null && second.getFraction() < first.getFraction()))
+			return second;
+		else
+			return first;
+	}
+	
+	private static Vector3D getReverseDirection(double deltaX, double deltaY)
+	{
+		double length = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+		if (length == 0)
+			return new Vector3D(0, 0);
+		else
+			return new Vector3D(-deltaX / length, -deltaY / length);
+	}
+	
+	private static boolean containsPoint(Polygon polygon, double x, double y)
+	{
+		// Counts how many edges a horizontal ray starting from the point crosses. This works 
+		// for concave polygons as well.
+		boolean inside = false;
+		int vertexAmount = polygon.getVertexAmount();
+		for (int i = 0, j = vertexAmount - 1; i < vertexAmount; j = i++)
 		{
-			collisionPoints = new ArrayList<>();
-			for (Line edge : polygon.getEdges())
+			double x1 = polygon.getX(i), y1 = polygon.getY(i);
+			double x2 = polygon.getX(j), y2 = polygon.getY(j);
+			if ((y1 > y) != (y2 > y) && x < (x2 - x1) * (y - y1) / (y2 - y1) + x1)
+				inside = !inside;
+		}
+		
+		return inside;
+	}
+	
+	/*
+	 * Expands the triangle that contains the origin until the edge of the Minkowski 
+	 * difference that is closest to the origin is found. Returns the MTV from the first 
+	 * polygon's perspective or null if the polygons only touch each other.
+	 */
+	private static Vector3D findPenetration(Polygon first, Polygon second, double[] triangle, 
+			int[] supports)
+	{
+		List<double[]> polytope = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+		{
+			polytope.add(new double[] {triangle[i * 2], triangle[i * 2 + 1]});
+		}
+		
+		// The outward normal depends on the winding of the polytope
+		double area = GeometryPredicates.orientation(triangle[0], triangle[1], triangle[2], 
+				triangle[3], triangle[4], triangle[5]);
+		if (area == 0)
+			return null;
+		boolean counterClockwise = area > 0;
+		
+		double normalX = 0, normalY = 0, distance = 0;
+		for (int iteration = 0; iteration < MAX_GJK_ITERATIONS; iteration++)
+		{
+			// Finds the edge closest to the origin
+			int closestIndex = -1;
+			distance = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < polytope.size(); i++)
 			{
-				collisionPoints.addAll(getCircleLineIntersectionPoints(circle, edge));
+				double[] a = polytope.get(i);
+				double[] b = polytope.get((i + 1) % polytope.size());
+				double ex = b[0] - a[0], ey = b[1] - a[1];
+				double length = Math.sqrt(ex * ex + ey * ey);
+				if (length == 0)
+					continue;
+				
+				double nx = (counterClockwise ? ey : -ey) / length;
+				double ny = (counterClockwise ? -ex : ex) / length;
+				double edgeDistance = nx * a[0] + ny * a[1];
+				if (edgeDistance < distance)
+				{
+					distance = edgeDistance;
+					normalX = nx;
+					normalY = ny;
+					closestIndex = i;
+				}
 			}
+			
+			// If the difference doesn't extend past the edge, the edge is on its boundary
+			double[] support = getMinkowskiSupport(first, second, normalX, normalY, supports);
+			if (support[0] * normalX + support[1] * normalY - distance <= EPA_TOLERANCE)
+				break;
+			
+			polytope.add(closestIndex + 1, support);
 		}
 		
-		return new CollisionData(true, mtv, collisionPoints);
-	}*/
+		if (distance <= 0)
+			return null;
+		
+		// Moving the first polygon against the normal moves the origin out of the difference
+		return new Vector3D(-normalX * distance, -normalY * distance);
+	}
+	
+	private static double[] getAverageVertex(Polygon polygon)
+	{
+		double x = 0, y = 0;
+		for (int i = 0; i < polygon.getVertexAmount(); i++)
+		{
+			x += polygon.getX(i);
+			y += polygon.getY(i);
+		}
+		
+		return new double[] {x / polygon.getVertexAmount(), y / polygon.getVertexAmount()};
+	}
+	
+	private static double[] getOutwardNormal(double edgeStartX, double edgeStartY, double ex, 
+			double ey, double[] centroid)
+	{
+		// A convex polygon lies completely behind each of its edges
+		double length = Math.sqrt(ex * ex + ey * ey);
+		double nx = ey / length, ny = -ex / length;
+		if (nx * (centroid[0] - edgeStartX) + ny * (centroid[1] - edgeStartY) > 0)
+			return new double[] {-nx, -ny};
+		else
+			return new double[] {nx, ny};
+	}
+	
+	/*
+	 * Finds how far along the segment (start + t * delta) it crosses the edge 
+	 * (edgeStart + u * edge). Returns a negative value if the two don't cross.
+	 */
+	private static double getSegmentIntersection(double startX, double startY, double deltaX, 
+			double deltaY, double edgeStartX, double edgeStartY, double edgeX, double edgeY)
+	{
+		// Parallel edges can't be crossed
+		double denominator = GeometryPredicates.cross(deltaX, deltaY, edgeX, edgeY);
+		if (denominator == 0)
+			return -1;
+		
+		double wx = edgeStartX - startX, wy = edgeStartY - startY;
+		double segmentFraction = (wx * edgeY - wy * edgeX) / denominator;
+		double edgeFraction = (wx * deltaY - wy * deltaX) / denominator;
+		
+		if (segmentFraction >= 0 && segmentFraction <= 1 && edgeFraction >= 0 && 
+				edgeFraction <= 1)
+			return segmentFraction;
+		else
+			return -1;
+	}
+	
+	private static double[] getMinkowskiSupport(Polygon first, Polygon second, double dx, 
+			double dy, int[] supports)
+	{
+		// The first polygon is furthest along the direction and the second polygon 
+		// furthest against it
+		supports[0] = findSupport(first, dx, dy, supports[0]);
+		supports[3] = findSupport(second, -dx, -dy, supports[3]);
+		return new double[] {first.getX(supports[0]) - second.getX(supports[3]), 
+				first.getY(supports[0]) - second.getY(supports[3])};
+	}
+	
+	private static int findSupport(Polygon polygon, double dx, double dy, int startIndex)
+	{
+		// Small polygons are simply searched through
+		if (polygon.getVertexAmount() > HILL_CLIMBING_VERTEX_THRESHOLD)
+			return polygon.getSupportIndex(dx, dy, startIndex);
+		else
+			return polygon.getSupportIndex(dx, dy);
+	}
 	
 	private static List<Vector3D> clip(Line reference, Line incident, Vector3D referenceMtv)
 	{
@@ -553,8 +1779,7 @@ public class CollisionCheck
 		
 		// Removes the edges from outside the third side
 		Vector3D lastNormal = reference.toVector().normal();
-		if (!HelpMath.areApproximatelyEqual(lastNormal.getZDirection(), 
-				referenceMtv.getZDirection()))
+		if (!GeometryPredicates.pointSameWay(lastNormal, referenceMtv))
 			lastNormal = referenceMtv;
 		
 		List<Vector3D> collisionPoints = new ArrayList<>();
@@ -18,6 +18,7 @@ public class CollisionData
 	private boolean collides;
 	private Vector3D mtv;
 	private List<Vector3D> collisionPoints;
+	private double timeOfImpact;
 	
 	
 	// CONSTRUCTOR	-----------------------------
@@ -29,10 +30,25 @@ public class CollisionData
 	 * @param collisionPoints The collision points calculated during the operation (optional)
 	 */
 	public CollisionData(boolean collides, Vector3D mtv, List<Vector3D> collisionPoints)
+	{
+		this(collides, mtv, collisionPoints, 1);
+	}
+	
+	/**
+	 * Creates a new collisionData that holds information about the collision
+	 * @param collides Did a collision occur or not
+	 * @param mtv The minimum translation vector calculated during the operation
+	 * @param collisionPoints The collision points calculated during the operation (optional)
+	 * @param timeOfImpact How far into the checked step the objects came into contact, 
+	 * between 0 (the beginning of the step) and 1 (the end of the step)
+	 */
+	public CollisionData(boolean collides, Vector3D mtv, List<Vector3D> collisionPoints, 
+			double timeOfImpact)
 	{
 		this.collides = collides;
 		this.mtv = mtv;
 		this.collisionPoints = collisionPoints;
+		this.timeOfImpact = timeOfImpact;
 	}
 	
 	/**
@@ -72,4 +88,44 @@ public class CollisionData
 			this.collisionPoints = new ArrayList<>();
 		return this.collisionPoints;
 	}
+	
+	/**
+	 * @return How far into the checked step the objects came into contact, between 0 (the 
+	 * beginning of the step) and 1 (the end of the step). Discrete collision checks only 
+	 * see the end of the step, so their collisions have the time of impact 1.
+	 */
+	public double getTimeOfImpact()
+	{
+		return this.timeOfImpact;
+	}
+	
+	/**
+	 * Creates a copy of this data with a different time of impact
+	 * @param timeOfImpact How far into the checked step the objects came into contact, 
+	 * between 0 and 1
+	 * @return A copy of this data with the provided time of impact
+	 */
+	public CollisionData withTimeOfImpact(double timeOfImpact)
+	{
+		return new CollisionData(this.collides, this.mtv, this.collisionPoints, timeOfImpact);
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * Creates collision data that describes the same collision from the other object's point 
+	 * of view. The collision points stay the same but the minimum translation vector is 
+	 * reversed.
+	 * @return The collision data from the other object's point of view
+	 */
+	public CollisionData reversed()
+	{
+		if (this.mtv == null)
+			return new CollisionData(this.collides, null, this.collisionPoints, 
+					this.timeOfImpact);
+		else
+			return new CollisionData(this.collides, this.mtv.reverse(), this.collisionPoints, 
+					this.timeOfImpact);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,352 @@
+package utopia.conflict.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is a static interface for dividing concave polygons into convex pieces. The polygon 
+ * is first triangulated by clipping its ears, after which the triangles are merged back 
+ * together (Hertel-Mehlhorn) as long as the merged pieces stay convex. The process takes 
+ * O(n^2) time at worst and produces at most four times the minimum amount of pieces. Only 
+ * cross products are used, so no trigonometry is involved.
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+public class ConvexDecomposition
+{
+	// ATTRIBUTES	------------------
+	
+	private static final double EPSILON = 0.0000001;
+	
+	
+	// CONSTRUCTOR	------------------
+	
+	private ConvexDecomposition()
+	{
+		// Static interface
+	}
+
+
+	// OTHER METHODS	--------------
+	
+	/**
+	 * Divides a polygon into convex pieces. The polygon shouldn't intersect itself.
+	 * @param polygon The polygon that is divided
+	 * @return Convex polygons that together form the original polygon. The pieces 
+	 * circulate in the same direction as the original polygon. If the polygon was already 
+	 * convex, it is returned as is.
+	 */
+	public static ArrayList<Polygon> decompose(Polygon polygon)
+	{
+		ArrayList<Polygon> pieces = new ArrayList<>();
+		int n = polygon.getVertexAmount();
+		if (n <= 3)
+		{
+			pieces.add(polygon);
+			return pieces;
+		}
+
+		// The pieces are formed in the positive area order and reversed at the end if 
+		// necessary
+		double[] xs = new double[n];
+		double[] ys = new double[n];
+		for (int i = 0; i < n; i++)
+		{
+			xs[i] = polygon.getX(i);
+			ys[i] = polygon.getY(i);
+		}
+		boolean reversed = GeometryPredicates.getSignedArea(polygon) < 0;
+		if (reversed)
+		{
+			reverse(xs);
+			reverse(ys);
+		}
+
+		if (GeometryPredicates.isConvex(xs, ys, EPSILON))
+		{
+			pieces.add(polygon);
+			return pieces;
+		}
+
+		List<int[]> parts = mergeConvex(xs, ys, triangulate(xs, ys));
+		for (int[] part : parts)
+		{
+			double[] partXs = new double[part.length];
+			double[] partYs = new double[part.length];
+			for (int i = 0; i < part.length; i++)
+			{
+				int index = reversed ? part[part.length - 1 - i] : part[i];
+				partXs[i] = xs[index];
+				partYs[i] = ys[index];
+			}
+			pieces.add(new Polygon(partXs, partYs));
+		}
+
+		return pieces;
+	}
+
+	private static List<int[]> triangulate(double[] xs, double[] ys)
+	{
+		// The remaining vertices are kept in a circular linked list
+		int n = xs.length;
+		int[] previous = new int[n];
+		int[] next = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			previous[i] = i == 0 ? n - 1 : i - 1;
+			next[i] = i == n - 1 ? 0 : i + 1;
+		}
+		boolean[] reflex = new boolean[n];
+		List<Integer> reflexVertices = new ArrayList<>();
+		for (int i = 0; i < n; i++)
+		{
+			reflex[i] = GeometryPredicates.orientation(xs, ys, previous[i], i, next[i]) < 
+					EPSILON;
+			if (reflex[i])
+				reflexVertices.add(i);
+		}
+		
+		// Vertices never become reflex during the process, so only the originally reflex 
+		// vertices need to be tested against the ears. They are sorted by their 
+		// x-coordinates so that only the vertices near each ear are tested.
+		reflexVertices.sort((i1, i2) -> Double.compare(xs[i1], xs[i2]));
+		int[] reflexOrder = new int[reflexVertices.size()];
+		for (int i = 0; i < reflexOrder.length; i++)
+		{
+			reflexOrder[i] = reflexVertices.get(i);
+		}
+		
+		// Clipping an ear only changes whether its neighbours are ears, so the other ears 
+		// are remembered between the rounds
+		boolean[] ear = new boolean[n];
+		updateEars(xs, ys, reflex, reflexOrder, previous, next, ear, 0);
+
+		List<int[]> triangles = new ArrayList<>(n - 2);
+		int remaining = n;
+		int current = 0;
+		int visitedWithoutClip = 0;
+		boolean earsUpdated = true;
+		while (remaining > 3)
+		{
+			// Removing vertices on a straight line may reveal new ears elsewhere, so the 
+			// ears are searched again before giving up
+			if (visitedWithoutClip > remaining && !earsUpdated)
+			{
+				updateEars(xs, ys, reflex, reflexOrder, previous, next, ear, current);
+				visitedWithoutClip = 0;
+				earsUpdated = true;
+			}
+			
+			int a = previous[current];
+			int b = next[current];
+			
+			// Vertices on a straight line are dropped without forming a triangle. If no ear 
+			// can be found (the polygon intersects itself), a vertex is clipped anyway so 
+			// that the process always ends.
+			boolean collinear = Math.abs(GeometryPredicates.orientation(xs, ys, a, current, 
+					b)) < EPSILON;
+			if (collinear || ear[current] || visitedWithoutClip > remaining)
+			{
+				if (!collinear)
+					triangles.add(new int[] {a, current, b});
+
+				next[a] = b;
+				previous[b] = a;
+				reflex[current] = false;
+				remaining --;
+				
+				// Only the neighbours' angles change. Reflex vertices may become convex.
+				if (reflex[a])
+					reflex[a] = GeometryPredicates.orientation(xs, ys, previous[a], a, b) < 
+							EPSILON;
+				if (reflex[b])
+					reflex[b] = GeometryPredicates.orientation(xs, ys, a, b, next[b]) < 
+							EPSILON;
+				ear[a] = isEar(xs, ys, reflex, reflexOrder, previous[a], a, b);
+				ear[b] = isEar(xs, ys, reflex, reflexOrder, a, b, next[b]);
+				
+				current = b;
+				visitedWithoutClip = 0;
+				earsUpdated = false;
+			}
+			else
+			{
+				current = next[current];
+				visitedWithoutClip ++;
+			}
+		}
+
+		// The last triangle closes the polygon
+		int a = previous[current];
+		int b = next[current];
+		if (Math.abs(GeometryPredicates.orientation(xs, ys, a, current, b)) >= EPSILON)
+			triangles.add(new int[] {a, current, b});
+		
+		return triangles;
+	}
+
+	private static void updateEars(double[] xs, double[] ys, boolean[] reflex, 
+			int[] reflexOrder, int[] previous, int[] next, boolean[] ear, int start)
+	{
+		int i = start;
+		do
+		{
+			ear[i] = isEar(xs, ys, reflex, reflexOrder, previous[i], i, next[i]);
+			i = next[i];
+		}
+		while (i != start);
+	}
+	
+	private static boolean isEar(double[] xs, double[] ys, boolean[] reflex, 
+			int[] reflexOrder, int a, int b, int c)
+	{
+		if (reflex[b])
+			return false;
+		
+		// Finds the first reflex vertex that may lie within the triangle's x-range
+		double minX = Math.min(xs[a], Math.min(xs[b], xs[c]));
+		double maxX = Math.max(xs[a], Math.max(xs[b], xs[c]));
+		double minY = Math.min(ys[a], Math.min(ys[b], ys[c]));
+		double maxY = Math.max(ys[a], Math.max(ys[b], ys[c]));
+		int low = 0, high = reflexOrder.length;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (xs[reflexOrder[middle]] < minX)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		
+		// No remaining reflex vertex may lie inside the triangle
+		for (int k = low; k < reflexOrder.length && xs[reflexOrder[k]] <= maxX; k++)
+		{
+			int i = reflexOrder[k];
+			if (!reflex[i] || ys[i] < minY || ys[i] > maxY || isSamePoint(xs, ys, i, a) || 
+					isSamePoint(xs, ys, i, b) || isSamePoint(xs, ys, i, c))
+				continue;
+			
+			if (GeometryPredicates.orientation(xs, ys, a, b, i) >= 0 && 
+					GeometryPredicates.orientation(xs, ys, b, c, i) >= 0 && 
+					GeometryPredicates.orientation(xs, ys, c, a, i) >= 0)
+				return false;
+		}
+
+		return true;
+	}
+
+	private static List<int[]> mergeConvex(double[] xs, double[] ys, List<int[]> triangles)
+	{
+		// The triangles are stored as half edges so that two parts can be merged by 
+		// relinking the edges around the removed diagonal. Half edge 3t + k starts from the 
+		// k:th vertex of the t:th triangle.
+		int edgeAmount = triangles.size() * 3;
+		int[] origin = new int[edgeAmount];
+		int[] next = new int[edgeAmount];
+		int[] previous = new int[edgeAmount];
+		for (int t = 0; t < triangles.size(); t++)
+		{
+			for (int k = 0; k < 3; k++)
+			{
+				int edge = 3 * t + k;
+				origin[edge] = triangles.get(t)[k];
+				next[edge] = 3 * t + (k + 1) % 3;
+				previous[edge] = 3 * t + (k + 2) % 3;
+			}
+		}
+		
+		// The diagonals are the edges that are shared by two triangles
+		int[] twin = new int[edgeAmount];
+		Map<Long, Integer> edges = new HashMap<>();
+		for (int edge = 0; edge < edgeAmount; edge++)
+		{
+			edges.put(edgeKey(origin[edge], origin[next[edge]]), edge);
+		}
+		for (int edge = 0; edge < edgeAmount; edge++)
+		{
+			Integer opposite = edges.get(edgeKey(origin[next[edge]], origin[edge]));
+			twin[edge] = opposite == null ? -1 : opposite;
+		}
+		
+		// Each diagonal is removed if the two parts it separates form a convex part. The 
+		// triangles form a tree, so the two sides of a diagonal always belong to different 
+		// parts.
+		boolean[] removed = new boolean[edgeAmount];
+		for (int edge = 0; edge < edgeAmount; edge++)
+		{
+			int opposite = twin[edge];
+			if (opposite < edge || twin[opposite] != edge)
+				continue;
+			
+			// The edge goes from u to v and the opposite edge from v to u. Only the angles 
+			// at u and v change.
+			int u = origin[edge];
+			int v = origin[opposite];
+			int beforeU = origin[previous[edge]];
+			int afterU = origin[next[next[opposite]]];
+			int beforeV = origin[previous[opposite]];
+			int afterV = origin[next[next[edge]]];
+			if (GeometryPredicates.orientation(xs, ys, beforeU, u, afterU) < -EPSILON || 
+					GeometryPredicates.orientation(xs, ys, beforeV, v, afterV) < -EPSILON)
+				continue;
+			
+			next[previous[edge]] = next[opposite];
+			previous[next[opposite]] = previous[edge];
+			next[previous[opposite]] = next[edge];
+			previous[next[edge]] = previous[opposite];
+			removed[edge] = true;
+			removed[opposite] = true;
+		}
+		
+		// Collects the parts by following the remaining edges
+		List<int[]> parts = new ArrayList<>();
+		boolean[] visited = new boolean[edgeAmount];
+		List<Integer> part = new ArrayList<>();
+		for (int start = 0; start < edgeAmount; start++)
+		{
+			if (removed[start] || visited[start])
+				continue;
+			
+			part.clear();
+			int edge = start;
+			do
+			{
+				visited[edge] = true;
+				part.add(origin[edge]);
+				edge = next[edge];
+			}
+			while (edge != start);
+			
+			int[] indices = new int[part.size()];
+			for (int i = 0; i < indices.length; i++)
+			{
+				indices[i] = part.get(i);
+			}
+			parts.add(indices);
+		}
+		
+		return parts;
+	}
+
+	private static boolean isSamePoint(double[] xs, double[] ys, int a, int b)
+	{
+		return xs[a] == xs[b] && ys[a] == ys[b];
+	}
+
+	private static long edgeKey(int start, int end)
+	{
+		return ((long) start << 32) | (end & 0xffffffffL);
+	}
+
+	private static void reverse(double[] values)
+	{
+		for (int i = 0, j = values.length - 1; i < j; i++, j--)
+		{
+			double temp = values[i];
+			values[i] = values[j];
+			values[j] = temp;
+		}
+	}
+}
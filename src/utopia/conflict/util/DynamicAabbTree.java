@@ -0,0 +1,485 @@
+package utopia.conflict.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import utopia.genesis.util.Vector3D;
+
+/**
+ * DynamicAabbTree is a broad phase that keeps the items in a balanced bounding volume 
+ * hierarchy. Unlike a grid, the tree doesn't assume anything about the size of the items, 
+ * which makes it suitable for worlds where both very small and very large objects exist. 
+ * Each leaf is stored with fattened bounds so that small movements don't require any 
+ * changes in the tree. Each branch also knows the layers of the items under it, so that 
+ * whole branches can be skipped when they don't contain any of the searched layers.
+ * @author Mikko Hilpinen
+ * @param <T> The type of item stored in the tree
+ * @since 16.10.2026
+ */
+public class DynamicAabbTree<T> implements BroadPhase<T>
+{
+	// ATTRIBUTES	--------------------------
+	
+	/**
+	 * The default amount of extra space added around each leaf
+	 */
+	public static final double DEFAULT_MARGIN = 8;
+	
+	private final double margin;
+	private final Map<T, Node<T>> leaves = new HashMap<>();
+	private Node<T> root = null;
+	
+	
+	// CONSTRUCTOR	--------------------------
+	
+	/**
+	 * Creates a new empty tree that uses the default leaf margin
+	 */
+	public DynamicAabbTree()
+	{
+		this(DEFAULT_MARGIN);
+	}
+
+	/**
+	 * Creates a new empty tree
+	 * @param margin How much extra space is added around each leaf. An item may move this 
+	 * much without the tree having to be updated. Use 0 for items that don't move.
+	 */
+	public DynamicAabbTree(double margin)
+	{
+		this.margin = margin;
+	}
+
+
+	// IMPLEMENTED METHODS	------------------
+	
+	@Override
+	public void add(T item, Bounds bounds, long layers)
+	{
+		if (this.leaves.containsKey(item))
+			update(item, bounds, layers);
+		else
+		{
+			Node<T> leaf = new Node<>(item);
+			leaf.layers = layers;
+			leaf.itemBounds = bounds;
+			leaf.bounds = bounds.extended(this.margin);
+			this.leaves.put(item, leaf);
+			insertLeaf(leaf);
+		}
+	}
+
+	@Override
+	public void update(T item, Bounds bounds)
+	{
+		Node<T> leaf = this.leaves.get(item);
+		if (leaf == null)
+			add(item, bounds);
+		else
+		{
+			leaf.itemBounds = bounds;
+			
+			// The tree only needs to be modified once the item leaves its fattened bounds
+			if (!leaf.bounds.contains(bounds))
+			{
+				removeLeaf(leaf);
+				leaf.bounds = bounds.extended(this.margin);
+				insertLeaf(leaf);
+			}
+		}
+	}
+
+	@Override
+	public void update(T item, Bounds bounds, long layers)
+	{
+		Node<T> leaf = this.leaves.get(item);
+		if (leaf == null)
+			add(item, bounds, layers);
+		else
+		{
+			if (leaf.layers != layers)
+			{
+				// The layers of the branches above the leaf are updated as well
+				leaf.layers = layers;
+				for (Node<T> node = leaf.parent; node != null; node = node.parent)
+				{
+					node.layers = node.child1.layers | node.child2.layers;
+				}
+			}
+			
+			update(item, bounds);
+		}
+	}
+
+	@Override
+	public void remove(T item)
+	{
+		Node<T> leaf = this.leaves.remove(item);
+		if (leaf != null)
+			removeLeaf(leaf);
+	}
+
+	@Override
+	public boolean contains(T item)
+	{
+		return this.leaves.containsKey(item);
+	}
+
+	@Override
+	public void clear()
+	{
+		this.leaves.clear();
+		this.root = null;
+	}
+
+	@Override
+	public void query(double minX, double minY, double maxX, double maxY, long layerMask, 
+			QueryCallback<? super T> callback)
+	{
+		if (this.root != null)
+			query(this.root, minX, minY, maxX, maxY, layerMask, null, callback);
+	}
+
+	@Override
+	public void queryOverlapping(T item, long layerMask, Collection<? super T> results)
+	{
+		Node<T> leaf = this.leaves.get(item);
+		if (leaf != null && this.root != null)
+			query(this.root, leaf.itemBounds.getMinX(), leaf.itemBounds.getMinY(), 
+					leaf.itemBounds.getMaxX(), leaf.itemBounds.getMaxY(), layerMask, leaf, 
+					results::add);
+	}
+
+	@Override
+	public void raycast(Vector3D start, Vector3D end, double maxFraction, long layerMask, 
+			RaycastCallback<? super T> callback)
+	{
+		if (this.root == null)
+			return;
+		
+		double startX = start.getX(), startY = start.getY();
+		double deltaX = end.getX() - startX, deltaY = end.getY() - startY;
+		
+		// The nodes are visited in the order the segment enters them, so that the search 
+		// can end as soon as the next node lies beyond the maximum fraction
+		PriorityQueue<RaycastCandidate<T>> queue = new PriorityQueue<>();
+		double rootFraction = this.root.bounds.getEntryFraction(startX, startY, deltaX, deltaY);
+		if (rootFraction >= 0 && (this.root.layers & layerMask) != 0)
+			queue.add(new RaycastCandidate<>(this.root, rootFraction));
+		
+		while (!queue.isEmpty())
+		{
+			RaycastCandidate<T> candidate = queue.poll();
+			if (candidate.fraction > maxFraction)
+				break;
+			
+			Node<T> node = candidate.node;
+			if (node.isLeaf())
+			{
+				// The leaves are reported based on the item's actual bounds
+				double fraction = node.itemBounds.getEntryFraction(startX, startY, deltaX, 
+						deltaY);
+				if (fraction >= 0 && fraction <= maxFraction)
+				{
+					maxFraction = callback.onItemReached(node.item, maxFraction);
+					if (maxFraction <= 0)
+						break;
+				}
+			}
+			else
+			{
+				addRaycastCandidate(queue, node.child1, startX, startY, deltaX, deltaY, 
+						maxFraction, layerMask);
+				addRaycastCandidate(queue, node.child2, startX, startY, deltaX, deltaY, 
+						maxFraction, layerMask);
+			}
+		}
+	}
+
+
+	// ACCESSORS	--------------------------
+	
+	/**
+	 * @return How much extra space is added around each leaf
+	 */
+	public double getMargin()
+	{
+		return this.margin;
+	}
+
+
+	// OTHER METHODS	----------------------
+	
+	/**
+	 * @return The height of the tree. An empty tree has a height of -1, a tree with a single 
+	 * item has a height of 0.
+	 */
+	public int getHeight()
+	{
+		if (this.root == null)
+			return -1;
+		else
+			return this.root.height;
+	}
+
+	private static <T> void query(Node<T> node, double minX, double minY, double maxX, 
+			double maxY, long layerMask, Node<T> excluded, QueryCallback<? super T> callback)
+	{
+		// The tree is balanced, so the recursion only goes as deep as the tree is high
+		if ((node.layers & layerMask) == 0 || !node.bounds.overlaps(minX, minY, maxX, maxY))
+			return;
+		
+		if (node.isLeaf())
+		{
+			if (node != excluded && node.itemBounds.overlaps(minX, minY, maxX, maxY))
+				callback.onItemFound(node.item);
+		}
+		else
+		{
+			query(node.child1, minX, minY, maxX, maxY, layerMask, excluded, callback);
+			query(node.child2, minX, minY, maxX, maxY, layerMask, excluded, callback);
+		}
+	}
+
+	private void insertLeaf(Node<T> leaf)
+	{
+		if (this.root == null)
+		{
+			this.root = leaf;
+			leaf.parent = null;
+			return;
+		}
+
+		// Finds the best sibling for the new leaf by following the branch where the increase 
+		// in perimeter is the smallest
+		Bounds leafBounds = leaf.bounds;
+		Node<T> sibling = this.root;
+		while (!sibling.isLeaf())
+		{
+			double perimeter = perimeter(sibling.bounds);
+			double combinedPerimeter = perimeter(sibling.bounds.combinedWith(leafBounds));
+			
+			// The cost of creating a new parent for this node and the leaf
+			double cost = 2 * combinedPerimeter;
+			// The minimum cost of pushing the leaf further down the tree
+			double inheritanceCost = 2 * (combinedPerimeter - perimeter);
+			
+			double cost1 = descendCost(sibling.child1, leafBounds) + inheritanceCost;
+			double cost2 = descendCost(sibling.child2, leafBounds) + inheritanceCost;
+			
+			if (cost < cost1 && cost < cost2)
+				break;
+			
+			if (cost1 < cost2)
+				sibling = sibling.child1;
+			else
+				sibling = sibling.child2;
+		}
+
+		// Creates a new parent for the sibling and the leaf
+		Node<T> oldParent = sibling.parent;
+		Node<T> newParent = new Node<>(null);
+		newParent.parent = oldParent;
+		newParent.bounds = sibling.bounds.combinedWith(leafBounds);
+		newParent.layers = sibling.layers | leaf.layers;
+		newParent.height = sibling.height + 1;
+		newParent.child1 = sibling;
+		newParent.child2 = leaf;
+		sibling.parent = newParent;
+		leaf.parent = newParent;
+		
+		if (oldParent == null)
+			this.root = newParent;
+		else
+			oldParent.replaceChild(sibling, newParent);
+		
+		refitFrom(leaf.parent);
+	}
+
+	private void removeLeaf(Node<T> leaf)
+	{
+		if (leaf == this.root)
+		{
+			this.root = null;
+			return;
+		}
+
+		// The leaf's parent is removed and the sibling takes its place
+		Node<T> parent = leaf.parent;
+		Node<T> grandParent = parent.parent;
+		Node<T> sibling = parent.child1 == leaf ? parent.child2 : parent.child1;
+		leaf.parent = null;
+		
+		if (grandParent == null)
+		{
+			this.root = sibling;
+			sibling.parent = null;
+		}
+		else
+		{
+			grandParent.replaceChild(parent, sibling);
+			sibling.parent = grandParent;
+			refitFrom(grandParent);
+		}
+	}
+
+	private void refitFrom(Node<T> node)
+	{
+		// Walks back to the root, balancing the tree and updating the bounds on the way
+		while (node != null)
+		{
+			node = balance(node);
+			node.height = 1 + Math.max(node.child1.height, node.child2.height);
+			node.bounds = node.child1.bounds.combinedWith(node.child2.bounds);
+			node.layers = node.child1.layers | node.child2.layers;
+			node = node.parent;
+		}
+	}
+
+	private Node<T> balance(Node<T> a)
+	{
+		if (a.isLeaf() || a.height < 2)
+			return a;
+		
+		Node<T> b = a.child1;
+		Node<T> c = a.child2;
+		int balance = c.height - b.height;
+		
+		// Rotates c up
+		if (balance > 1)
+		{
+			rotateUp(a, c, b);
+			return c;
+		}
+		// Rotates b up
+		else if (balance < -1)
+		{
+			rotateUp(a, b, c);
+			return b;
+		}
+
+		return a;
+	}
+
+	private void rotateUp(Node<T> a, Node<T> raised, Node<T> stayed)
+	{
+		// The raised node replaces a, which becomes its child. The raised node's shorter child 
+		// is moved under a.
+		Node<T> f = raised.child1;
+		Node<T> g = raised.child2;
+		
+		raised.parent = a.parent;
+		a.parent = raised;
+		if (raised.parent == null)
+			this.root = raised;
+		else
+			raised.parent.replaceChild(a, raised);
+		
+		Node<T> kept = f.height > g.height ? f : g;
+		Node<T> moved = kept == f ? g : f;
+		
+		raised.child1 = a;
+		raised.child2 = kept;
+		a.replaceChild(raised, moved);
+		moved.parent = a;
+		
+		a.bounds = stayed.bounds.combinedWith(moved.bounds);
+		a.height = 1 + Math.max(stayed.height, moved.height);
+		a.layers = stayed.layers | moved.layers;
+		raised.bounds = a.bounds.combinedWith(kept.bounds);
+		raised.height = 1 + Math.max(a.height, kept.height);
+		raised.layers = a.layers | kept.layers;
+	}
+
+	private static double descendCost(Node<?> node, Bounds leafBounds)
+	{
+		double combinedPerimeter = perimeter(node.bounds.combinedWith(leafBounds));
+		if (node.isLeaf())
+			return combinedPerimeter;
+		else
+			return combinedPerimeter - perimeter(node.bounds);
+	}
+
+	private static double perimeter(Bounds bounds)
+	{
+		return 2 * (bounds.getWidth() + bounds.getHeight());
+	}
+
+	private static <T> void addRaycastCandidate(PriorityQueue<RaycastCandidate<T>> queue, 
+			Node<T> node, double startX, double startY, double deltaX, double deltaY, 
+			double maxFraction, long layerMask)
+	{
+		if ((node.layers & layerMask) == 0)
+			return;
+		
+		double fraction = node.bounds.getEntryFraction(startX, startY, deltaX, deltaY);
+		if (fraction >= 0 && fraction <= maxFraction)
+			queue.add(new RaycastCandidate<>(node, fraction));
+	}
+
+
+	// NESTED CLASSES	----------------------
+	
+	private static class RaycastCandidate<T> implements Comparable<RaycastCandidate<T>>
+	{
+		// ATTRIBUTES	----------------------
+		
+		private final Node<T> node;
+		private final double fraction;
+		
+		
+		// CONSTRUCTOR	----------------------
+		
+		public RaycastCandidate(Node<T> node, double fraction)
+		{
+			this.node = node;
+			this.fraction = fraction;
+		}
+
+
+		// IMPLEMENTED METHODS	--------------
+		
+		@Override
+		public int compareTo(RaycastCandidate<T> other)
+		{
+			return Double.compare(this.fraction, other.fraction);
+		}
+	}
+
+	private static class Node<T>
+	{
+		// ATTRIBUTES	----------------------
+		
+		private final T item;
+		private Bounds bounds, itemBounds;
+		private long layers;
+		private Node<T> parent, child1, child2;
+		private int height = 0;
+		
+		
+		// CONSTRUCTOR	----------------------
+		
+		public Node(T item)
+		{
+			this.item = item;
+		}
+
+
+		// OTHER METHODS	------------------
+		
+		public boolean isLeaf()
+		{
+			return this.child1 == null;
+		}
+
+		public void replaceChild(Node<T> oldChild, Node<T> newChild)
+		{
+			if (this.child1 == oldChild)
+				this.child1 = newChild;
+			else
+				this.child2 = newChild;
+		}
+	}
+}
@@ -0,0 +1,240 @@
+package utopia.conflict.util;
+
+import utopia.conflict.util.Polygon.CirculationDirection;
+import utopia.genesis.util.Vector3D;
+
+/**
+ * This is a static interface for basic geometric tests. The tests are based on cross 
+ * products and signed areas instead of angles, so no trigonometry is needed and there are 
+ * no problems with directions wrapping around at 360 degrees. The y-axis is considered to 
+ * point downwards, like it does on screen, so a positive cross product means a clockwise 
+ * turn.
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+public class GeometryPredicates
+{
+	// ATTRIBUTES	------------------
+	
+	/**
+	 * How large the sine of the angle between two directions may be at most for them to be 
+	 * considered parallel
+	 */
+	public static final double PARALLEL_TOLERANCE = 0.000001;
+	
+	
+	// CONSTRUCTOR	------------------
+	
+	private GeometryPredicates()
+	{
+		// Static interface
+	}
+
+
+	// OTHER METHODS	--------------
+	
+	/**
+	 * Calculates the 2D cross product of two vectors
+	 * @param ax The x-component of the first vector
+	 * @param ay The y-component of the first vector
+	 * @param bx The x-component of the second vector
+	 * @param by The y-component of the second vector
+	 * @return The z-component of the cross product. Positive when the second vector points 
+	 * clockwise from the first one (on screen), negative when it points counter-clockwise 
+	 * and zero when the vectors are parallel.
+	 */
+	public static double cross(double ax, double ay, double bx, double by)
+	{
+		return ax * by - ay * bx;
+	}
+
+	/**
+	 * Calculates the orientation of three points, which is twice the signed area of the 
+	 * triangle they form
+	 * @param ax The x-coordinate of the first point
+	 * @param ay The y-coordinate of the first point
+	 * @param bx The x-coordinate of the second point
+	 * @param by The y-coordinate of the second point
+	 * @param cx The x-coordinate of the third point
+	 * @param cy The y-coordinate of the third point
+	 * @return Positive when the path a -> b -> c turns clockwise (on screen), negative when 
+	 * it turns counter-clockwise and zero when the points are on the same line
+	 */
+	public static double orientation(double ax, double ay, double bx, double by, double cx, 
+			double cy)
+	{
+		return cross(bx - ax, by - ay, cx - ax, cy - ay);
+	}
+
+	/**
+	 * Calculates the orientation of three vertices of a polygon, which is twice the signed 
+	 * area of the triangle they form
+	 * @param xs The x-coordinates of the polygon's vertices
+	 * @param ys The y-coordinates of the polygon's vertices
+	 * @param a The index of the first vertex
+	 * @param b The index of the second vertex
+	 * @param c The index of the third vertex
+	 * @return Positive when the path a -> b -> c turns clockwise (on screen), negative when 
+	 * it turns counter-clockwise and zero when the vertices are on the same line
+	 */
+	public static double orientation(double[] xs, double[] ys, int a, int b, int c)
+	{
+		return orientation(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+	}
+
+	/**
+	 * Calculates the signed area of a polygon
+	 * @param polygon A polygon
+	 * @return The area of the polygon. Positive when the vertices go clockwise (on screen), 
+	 * negative when they go counter-clockwise.
+	 */
+	public static double getSignedArea(Polygon polygon)
+	{
+		double area = 0;
+		int vertexAmount = polygon.getVertexAmount();
+		for (int i = 0, j = vertexAmount - 1; i < vertexAmount; j = i++)
+		{
+			area += cross(polygon.getX(j), polygon.getY(j), polygon.getX(i), 
+					polygon.getY(i));
+		}
+
+		return area / 2;
+	}
+
+	/**
+	 * Calculates the signed area of a polygon
+	 * @param xs The x-coordinates of the polygon's vertices, in order
+	 * @param ys The y-coordinates of the polygon's vertices, in the same order
+	 * @return The area of the polygon. Positive when the vertices go clockwise (on screen), 
+	 * negative when they go counter-clockwise.
+	 */
+	public static double getSignedArea(double[] xs, double[] ys)
+	{
+		double area = 0;
+		for (int i = 0, j = xs.length - 1; i < xs.length; j = i++)
+		{
+			area += cross(xs[j], ys[j], xs[i], ys[i]);
+		}
+
+		return area / 2;
+	}
+
+	/**
+	 * Finds the direction in which the vertices of a polygon go around it
+	 * @param polygon A polygon
+	 * @return The circulation direction of the polygon. Counter-clockwise if the polygon has 
+	 * no area.
+	 */
+	public static CirculationDirection getCirculationDirection(Polygon polygon)
+	{
+		if (getSignedArea(polygon) > 0)
+			return CirculationDirection.CLOCKWISE;
+		else
+			return CirculationDirection.COUNTERCLOCKWISE;
+	}
+
+	/**
+	 * Checks whether a polygon is convex. Vertices on a straight line don't make the 
+	 * polygon concave.
+	 * @param polygon A polygon
+	 * @return Does the polygon turn only to one direction
+	 */
+	public static boolean isConvex(Polygon polygon)
+	{
+		int vertexAmount = polygon.getVertexAmount();
+		if (vertexAmount < 4)
+			return true;
+		
+		// Each turn must go to the same direction as the polygon
+		double sign = Math.signum(getSignedArea(polygon));
+		for (int i = 0; i < vertexAmount; i++)
+		{
+			int previous = i == 0 ? vertexAmount - 1 : i - 1;
+			int next = i == vertexAmount - 1 ? 0 : i + 1;
+			if (orientation(polygon.getX(previous), polygon.getY(previous), polygon.getX(i), 
+					polygon.getY(i), polygon.getX(next), polygon.getY(next)) * sign < 0)
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks whether a polygon is convex. Vertices on a straight line don't make the 
+	 * polygon concave.
+	 * @param xs The x-coordinates of the polygon's vertices, in order
+	 * @param ys The y-coordinates of the polygon's vertices, in the same order
+	 * @param tolerance How far a turn may go against the polygon's direction before it 
+	 * makes the polygon concave. Compared to the orientation of each three consecutive 
+	 * vertices.
+	 * @return Does the polygon turn only to one direction
+	 * @see #orientation(double[], double[], int, int, int)
+	 */
+	public static boolean isConvex(double[] xs, double[] ys, double tolerance)
+	{
+		int vertexAmount = xs.length;
+		if (vertexAmount < 4)
+			return true;
+		
+		double sign = Math.signum(getSignedArea(xs, ys));
+		for (int i = 0; i < vertexAmount; i++)
+		{
+			int previous = i == 0 ? vertexAmount - 1 : i - 1;
+			int next = i == vertexAmount - 1 ? 0 : i + 1;
+			if (orientation(xs, ys, previous, i, next) * sign < -tolerance)
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks whether a point lies inside a convex polygon. Works with both circulation 
+	 * directions.
+	 * @param polygon A convex polygon
+	 * @param x The x-coordinate of the point
+	 * @param y The y-coordinate of the point
+	 * @return Is the point inside the polygon or on its edge
+	 */
+	public static boolean convexContains(Polygon polygon, double x, double y)
+	{
+		// The point must be on the same side of each edge
+		int vertexAmount = polygon.getVertexAmount();
+		boolean clockwiseSide = false, counterClockwiseSide = false;
+		for (int i = 0, j = vertexAmount - 1; i < vertexAmount; j = i++)
+		{
+			double side = orientation(polygon.getX(j), polygon.getY(j), polygon.getX(i), 
+					polygon.getY(i), x, y);
+			if (side > 0)
+				clockwiseSide = true;
+			else if (side < 0)
+				counterClockwiseSide = true;
+			
+			if (clockwiseSide && counterClockwiseSide)
+				return false;
+		}
+
+		return vertexAmount > 0;
+	}
+
+	/**
+	 * Checks whether two vectors point to the same direction
+	 * @param first The first vector
+	 * @param second The second vector
+	 * @return Are the vectors parallel and pointing the same way
+	 * @see #PARALLEL_TOLERANCE
+	 */
+	public static boolean pointSameWay(Vector3D first, Vector3D second)
+	{
+		double ax = first.getX(), ay = first.getY();
+		double bx = second.getX(), by = second.getY();
+		double dot = ax * bx + ay * by;
+		if (dot <= 0)
+			return false;
+		
+		// The cross product is |a||b|sin(angle)
+		double cross = cross(ax, ay, bx, by);
+		return cross * cross <= PARALLEL_TOLERANCE * PARALLEL_TOLERANCE * 
+				(ax * ax + ay * ay) * (bx * bx + by * by);
+	}
+}
@@ -2,7 +2,6 @@ package utopia.conflict.util;
 
 import java.awt.Graphics2D;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import utopia.genesis.util.HelpMath;
@@ -20,10 +19,14 @@ public class Polygon
 {
 	// ATTRIBUTES	--------------------------
 	
-	private final Vector3D[] vertices;
-	private CirculationDirection direction;
-	private List<Vector3D> axes;
-	private Vector3D topLeft, bottomRight;
+	private static final double SUPPORT_TOLERANCE = 0.000000001;
+	
+	private final double[] xs, ys;
+	private volatile Vector3D[] vertices;
+	private volatile CirculationDirection direction;
+	private volatile List<Vector3D> axes;
+	private volatile Vector3D topLeft, bottomRight;
+	private volatile Circle boundingCircle;
 	
 	
 	// CONSTRUCTOR	--------------------------
@@ -35,12 +38,33 @@ public class Polygon
 	 */
 	public Polygon(Vector3D... vertices)
 	{
-		// Initializes attributes
-		this.vertices = vertices;
+		// Initializes attributes. Only the coordinates are stored.
+		this(vertices.length);
+		for (int i = 0; i < vertices.length; i++)
+		{
+			this.xs[i] = vertices[i].getX();
+			this.ys[i] = vertices[i].getY();
+		}
+	}
+	
+	/**
+	 * Creates a new polygon from vertex coordinates
+	 * @param xs The x-coordinates of the vertices, in order
+	 * @param ys The y-coordinates of the vertices, in the same order as the x-coordinates
+	 */
+	public Polygon(double[] xs, double[] ys)
+	{
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("There must be as many x-coordinates as there are y-coordinates");
+		
+		this.xs = xs.clone();
+		this.ys = ys.clone();
+		this.vertices = null;
 		this.direction = null;
 		this.axes = null;
 		this.topLeft = null;
 		this.bottomRight = null;
+		this.boundingCircle = null;
 	}
 	
 	/**
@@ -49,11 +73,29 @@ public class Polygon
 	 */
 	public Polygon(Polygon other)
 	{
-		this.vertices = other.getVertices();
+		// The vertex data is never modified, so it can be shared
+		this.xs = other.xs;
+		this.ys = other.ys;
+		this.vertices = other.vertices;
 		this.direction = other.direction;
 		this.axes = other.axes;
 		this.topLeft = other.topLeft;
 		this.bottomRight = other.bottomRight;
+		this.boundingCircle = other.boundingCircle;
+	}
+	
+	// Creates a polygon with the given amount of vertices. The creator fills in the 
+	// coordinates before the polygon is used.
+	private Polygon(int vertexAmount)
+	{
+		this.xs = new double[vertexAmount];
+		this.ys = new double[vertexAmount];
+		this.vertices = null;
+		this.direction = null;
+		this.axes = null;
+		this.topLeft = null;
+		this.bottomRight = null;
+		this.boundingCircle = null;
 	}
 	
 	
@@ -82,7 +124,7 @@ public class Polygon
 	 */
 	public Vector3D[] getVertices()
 	{
-		return this.vertices.clone();
+		return getVertexView().clone();
 	}
 
 	
@@ -118,7 +160,7 @@ public class Polygon
 	 */
 	public int getVertexAmount()
 	{
-		return this.vertices.length;
+		return this.xs.length;
 	}
 	
 	/**
@@ -128,10 +170,116 @@ public class Polygon
 	 */
 	public Vector3D getVertex(int index)
 	{
-		while (index < 0)
-			index += getVertexAmount();
+		return getVertexView()[wrapIndex(index)];
+	}
+	
+	/**
+	 * Finds the x-coordinate of a vertex. Unlike {@link #getVertex(int)}, this method 
+	 * doesn't loop around the polygon, so the index must be valid.
+	 * @param index The index of the vertex in the polygon [0, vertex amount[
+	 * @return The x-coordinate of the vertex
+	 */
+	public double getX(int index)
+	{
+		return this.xs[index];
+	}
+	
+	/**
+	 * Finds the y-coordinate of a vertex. Unlike {@link #getVertex(int)}, this method 
+	 * doesn't loop around the polygon, so the index must be valid.
+	 * @param index The index of the vertex in the polygon [0, vertex amount[
+	 * @return The y-coordinate of the vertex
+	 */
+	public double getY(int index)
+	{
+		return this.ys[index];
+	}
+	
+	/**
+	 * Finds the vertex that lies furthest along a direction by going through all of the 
+	 * vertices
+	 * @param directionX The x-component of the direction
+	 * @param directionY The y-component of the direction
+	 * @return The index of the furthest vertex along the direction
+	 */
+	public int getSupportIndex(double directionX, double directionY)
+	{
+		int best = 0;
+		double bestProduct = this.xs[0] * directionX + this.ys[0] * directionY;
+		for (int i = 1; i < this.xs.length; i++)
+		{
+			double product = this.xs[i] * directionX + this.ys[i] * directionY;
+			if (product > bestProduct)
+			{
+				best = i;
+				bestProduct = product;
+			}
+		}
 		
-		return this.vertices[index % getVertexAmount()];
+		return best;
+	}
+	
+	/**
+	 * Finds the vertex that lies furthest along a direction by climbing along the polygon's 
+	 * edges from a starting vertex. This only works for convex polygons, but for those only 
+	 * the vertices between the starting vertex and the furthest vertex need to be checked. 
+	 * When the starting vertex is the furthest vertex along a similar direction, the search 
+	 * is very fast.
+	 * @param directionX The x-component of the direction
+	 * @param directionY The y-component of the direction
+	 * @param startIndex The index of the vertex the search starts from (loops around the 
+	 * polygon if necessary)
+	 * @return The index of the furthest vertex along the direction
+	 */
+	public int getSupportIndex(double directionX, double directionY, int startIndex)
+	{
+		int vertexAmount = this.xs.length;
+		int index = wrapIndex(startIndex);
+		double product = this.xs[index] * directionX + this.ys[index] * directionY;
+		double tolerance = getProductTolerance(directionX, directionY);
+		
+		// Finds out which way the vertices get further. Vertices that are as far as the 
+		// starting vertex (collinear vertices on an edge perpendicular to the direction) 
+		// are passed over, since the starting vertex may lie in the middle of the nearest 
+		// edge.
+		int step = getClimbingStep(index, 1, product, directionX, directionY, tolerance);
+		if (step == 0)
+			step = getClimbingStep(index, vertexAmount - 1, product, directionX, directionY, 
+					tolerance);
+		if (step == 0)
+			return index;
+		
+		// Climbs until the vertices start getting closer again. Vertices as far as the 
+		// best one are passed over here as well.
+		int best = index;
+		double bestProduct = product;
+		int candidate = index;
+		for (int i = 1; i < vertexAmount; i++)
+		{
+			candidate = (candidate + step) % vertexAmount;
+			double candidateProduct = this.xs[candidate] * directionX + 
+					this.ys[candidate] * directionY;
+			if (candidateProduct < bestProduct - tolerance)
+				break;
+			
+			if (candidateProduct > bestProduct)
+			{
+				best = candidate;
+				bestProduct = candidateProduct;
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Finds the vertex that lies furthest along a direction
+	 * @param direction A direction
+	 * @return The furthest vertex along the direction
+	 */
+	public Vector3D getSupport(Vector3D direction)
+	{
+		return getVertex(getSupportIndex(direction.getX(), direction.getY()));
 	}
 	
 	/**
@@ -173,98 +321,24 @@ public class Polygon
 	/**
 	 * @return Is the polygon convex. A polygon is convex when and only when one must only turn 
 	 * left or only turn right when traversing through the polygon.
+	 * @see GeometryPredicates#isConvex(Polygon)
 	 */
 	public boolean isConvex()
 	{
-		// A polygon is convex if one only has to turn right or left when traversing the 
-		// polygon's sides
-		for (int i = 0; i < getVertexAmount(); i++)
-		{
-			if (getCirculationDirectionAt(i) != getCirculationDirection())
-				return false;
-		}
-		
-		return true;
+		return GeometryPredicates.isConvex(this);
 	}
 	
 	/**
-	 * Divides a non-convex polygon into multiple convex polygons
-	 * @return Convex polygons that form this polygon
+	 * Divides a non-convex polygon into multiple convex polygons. The polygon is 
+	 * triangulated and the triangles are then merged into as large convex pieces as 
+	 * possible.
+	 * @return Convex polygons that form this polygon. Contains only this polygon if it was 
+	 * already convex.
+	 * @see ConvexDecomposition#decompose(Polygon)
 	 */
 	public ArrayList<Polygon> toConvexPolygons()
 	{
-		ArrayList<Polygon> polygons = new ArrayList<>();
-		List<Integer> movedIndices = new ArrayList<>();
-		
-		int lastBrokenIndex = -1;
-		
-		for (int index = 1; index <= getVertexAmount(); index ++)
-		{
-			// Checks if an index is broken (if there is a wrong direction at that point)
-			if (getCirculationDirectionAt(index - 1) != getCirculationDirection())
-			{
-				// Constructs a new polygon from the "broken" area, non-borken vertexes that 
-				// will be added will be removed from this polygon
-				if (lastBrokenIndex != -1 && index - lastBrokenIndex > 1)
-				{
-					List<Vector3D> newPolyVertices = new ArrayList<Vector3D>();
-					newPolyVertices.add(getVertex(lastBrokenIndex));
-					
-					for (int newPolyIndex = lastBrokenIndex + 1; newPolyIndex < index; 
-							newPolyIndex ++)
-					{
-						newPolyVertices.add(getVertex(newPolyIndex));
-						movedIndices.add(newPolyIndex);
-					}
-					
-					newPolyVertices.add(getVertex(index));
-					
-					polygons.add(new Polygon(newPolyVertices.toArray(new Vector3D[0])));
-				}
-				
-				// Remembers the broken part
-				lastBrokenIndex = index;
-			}
-		}
-		
-		// If broken indexes were found but not cut, cuts the polygon in half (takes a triangle 
-		// out of the original polygon)
-		if (movedIndices.isEmpty() && lastBrokenIndex != -1)
-		{
-			Vector3D[] newPolyVertices = {getVertex(lastBrokenIndex), 
-					getVertex(lastBrokenIndex + 1), 
-					getVertex(lastBrokenIndex + 2)};
-			
-			polygons.add(new Polygon(newPolyVertices));
-			
-			movedIndices.add(lastBrokenIndex + 1);
-		}
-		
-		// Finally checks if another round is required
-		if (movedIndices.isEmpty())
-			polygons.add(this);
-		else
-		{
-			// Sometimes a new polygon is formed to the center of cut polygons and must be 
-			// check separately
-			Vector3D[] remainingVertexes = 
-					new Vector3D[getVertexAmount() - movedIndices.size()];
-			
-			int newIndex = 0;
-			
-			for (int index = 0; index < getVertexAmount(); index ++)
-			{
-				if (!movedIndices.contains(index) && !movedIndices.contains(index + getVertexAmount()))
-				{
-					remainingVertexes[newIndex] = getVertex(index);
-					newIndex ++;
-				}
-			}
-			
-			polygons.addAll(new Polygon(remainingVertexes).toConvexPolygons());
-		}
-		
-		return polygons;
+		return ConvexDecomposition.decompose(this);
 	}
 	
 	/**
@@ -273,7 +347,7 @@ public class Polygon
 	public CirculationDirection getCirculationDirection()
 	{
 		if (this.direction == null)
-			this.direction = calculateCirculationDirection();
+			this.direction = GeometryPredicates.getCirculationDirection(this);
 		
 		return this.direction;
 	}
@@ -283,14 +357,14 @@ public class Polygon
 	 */
 	public Polygon reverse()
 	{
-		Vector3D[] newVertices = new Vector3D[getVertexAmount()];
-		
-		for (int i = 0; i < getVertexAmount(); i++)
+		int vertexAmount = getVertexAmount();
+		Polygon reversed = new Polygon(vertexAmount);
+		for (int i = 0; i < vertexAmount; i++)
 		{
-			newVertices[i] = getVertex(getVertexAmount() - 1 - i);
+			reversed.xs[i] = this.xs[vertexAmount - 1 - i];
+			reversed.ys[i] = this.ys[vertexAmount - 1 - i];
 		}
 		
-		Polygon reversed = new Polygon(newVertices);
 		if (this.direction != null)
 			reversed.direction = this.direction.reverse();
 		return reversed;
@@ -315,14 +389,22 @@ public class Polygon
 	 */
 	public Polygon transformedWith(Transformation transformation)
 	{
-		Vector3D[] transformedPoints = new Vector3D[getVertexAmount()];
+		// The linear part is found by transforming the unit vectors, after which the 
+		// coordinates can be transformed directly
+		Vector3D origin = transformation.transform(Vector3D.ZERO);
+		Vector3D xAxis = transformation.transform(new Vector3D(1, 0)).minus(origin);
+		Vector3D yAxis = transformation.transform(new Vector3D(0, 1)).minus(origin);
 		
-		for (int i = 0; i < getVertexAmount(); i++)
+		int vertexAmount = getVertexAmount();
+		Polygon transformed = new Polygon(vertexAmount);
+		for (int i = 0; i < vertexAmount; i++)
 		{
-			transformedPoints[i] = transformation.transform(getVertex(i));
+			double x = this.xs[i], y = this.ys[i];
+			transformed.xs[i] = xAxis.getX() * x + yAxis.getX() * y + origin.getX();
+			transformed.ys[i] = xAxis.getY() * x + yAxis.getY() * y + origin.getY();
 		}
 		
-		return new Polygon(transformedPoints);
+		return transformed;
 	}
 	
 	/**
@@ -335,8 +417,14 @@ public class Polygon
 		{
 			if (getVertexAmount() == 0)
 				return Vector3D.ZERO;
-			else
-				return HelpMath.max(this.vertices);
+			
+			double maxX = this.xs[0], maxY = this.ys[0];
+			for (int i = 1; i < this.xs.length; i++)
+			{
+				maxX = Math.max(maxX, this.xs[i]);
+				maxY = Math.max(maxY, this.ys[i]);
+			}
+			this.bottomRight = new Vector3D(maxX, maxY);
 		}
 		
 		return this.bottomRight;
@@ -352,8 +440,14 @@ public class Polygon
 		{
 			if (getVertexAmount() == 0)
 				return Vector3D.ZERO;
-			else
-				return HelpMath.min(this.vertices);
+			
+			double minX = this.xs[0], minY = this.ys[0];
+			for (int i = 1; i < this.xs.length; i++)
+			{
+				minX = Math.min(minX, this.xs[i]);
+				minY = Math.min(minY, this.ys[i]);
+			}
+			this.topLeft = new Vector3D(minX, minY);
 		}
 		
 		return this.topLeft;
@@ -378,59 +472,19 @@ public class Polygon
 	}
 	
 	/**
-	 * Checks if a point is inside this polygon. This doesn't always work with non-convex 
-	 * polygons, please transform the polygon into convex polygons before using this method.
+	 * Checks if a point is inside this polygon. This doesn't work with non-convex polygons, 
+	 * please transform the polygon into convex polygons before using this method.
 	 * @param point The point that is checked
-	 * @return Is the point inside this polygon.
+	 * @return Is the point inside this polygon. Points on the polygon's edges are considered 
+	 * to be inside.
+	 * @see GeometryPredicates#convexContains(Polygon, double, double)
 	 */
 	public boolean pointisWithin(Vector3D point)
 	{
 		if (!pointIsWithinBoundingBox(point))
 			return false;
 		
-		// Finds two vertices that are nearest to the given point
-		// TODO: Consider using pair instead
-		List<Vector3D> closestPoints = new LinkedList<Vector3D>();
-		
-		for (int i = 0; i < getVertexAmount(); i++)
-		{
-			closestPoints.add(new Vector3D(i, HelpMath.pointDistance2D(point, getVertex(i))));
-		}
-		
-		// Finds the two most close points
-		while (closestPoints.size() > 2)
-		{
-			double farthestRange = closestPoints.get(0).getY();
-			int farthestIndex = 0;
-			
-			for (int i = 1; i < 3; i++)
-			{
-				double range = closestPoints.get(i).getY();
-				if (range > farthestRange)
-				{
-					farthestRange = range;
-					farthestIndex = i;
-				}
-			}
-			
-			closestPoints.remove(farthestIndex);
-		}
-		
-		// Checks that the points are in right order (the first and the last go the 
-		// wrong way (index) by default)
-		if (closestPoints.get(1).getXInt() - closestPoints.get(0).getXInt() > 
-				getVertexAmount() / 2)
-			closestPoints.add(closestPoints.remove(0));
-		
-		double dir1 = HelpMath.checkDirection(point.minus(
-				getVertex(closestPoints.get(0).getXInt())).getZDirection());
-		double dir2 = HelpMath.checkDirection(getVertex(
-				closestPoints.get(1).getXInt()).minus(point).getZDirection());
-		double turn = HelpMath.checkDirection(dir2 - dir1);
-		
-		// If a line going through the three points would make the polygon non-convex, 
-		// there is a collision 
-		return CirculationDirection.getTurnDirection(turn) != getCirculationDirection();
+		return GeometryPredicates.convexContains(this, point.getX(), point.getY());
 	}
 	
 	/**
@@ -497,11 +551,12 @@ public class Polygon
 	public Circle toAverageCircle()
 	{
 		// Finds the center point between the vertices
-		Vector3D center = HelpMath.getAveragePoint(this.vertices);
+		Vector3D[] vertices = getVertexView();
+		Vector3D center = HelpMath.getAveragePoint(vertices);
 		
 		// Then finds the average radius
 		double averageRadius = 0;
-		for (Vector3D vertex : this.vertices)
+		for (Vector3D vertex : vertices)
 		{
 			averageRadius += HelpMath.pointDistance2D(vertex, center);
 		}
@@ -516,10 +571,11 @@ public class Polygon
 	 */
 	public Circle toMaximumCircle()
 	{
-		Vector3D center = HelpMath.getAveragePoint(this.vertices);
+		Vector3D[] vertices = getVertexView();
+		Vector3D center = HelpMath.getAveragePoint(vertices);
 		
 		double maxRadius = 0;
-		for (Vector3D vertex : this.vertices)
+		for (Vector3D vertex : vertices)
 		{
 			double radius = HelpMath.pointDistance2D(center, vertex);
 			if (radius > maxRadius)
@@ -529,6 +585,19 @@ public class Polygon
 		return new Circle(center, maxRadius);
 	}
 	
+	/**
+	 * @return The smallest circle that contains all vertices of the polygon. Unlike 
+	 * {@link #toMaximumCircle()}, the circle isn't centered to the average of the vertices. 
+	 * The circle is calculated once and then kept.
+	 */
+	public Circle getBoundingCircle()
+	{
+		if (this.boundingCircle == null)
+			this.boundingCircle = Circle.around(this.xs, this.ys);
+		
+		return this.boundingCircle;
+	}
+	
 	/**
 	 * Creates a polygon by parsing it from a string.
 	 * @param s The string that contains the polygon's vertex data. The vertices are separated 
@@ -562,30 +631,66 @@ public class Polygon
 		return vertices;
 	}
 	
-	private CirculationDirection getCirculationDirectionAt(int startIndex)
+	/*
+	 * Finds the first vertex in the provided direction (step) that is not as far as the 
+	 * starting vertex. Returns the step if that vertex is further and 0 otherwise.
+	 */
+	private int getClimbingStep(int startIndex, int step, double startProduct, 
+			double directionX, double directionY, double tolerance)
+	{
+		int vertexAmount = this.xs.length;
+		int index = startIndex;
+		for (int i = 1; i < vertexAmount; i++)
+		{
+			index = (index + step) % vertexAmount;
+			double product = this.xs[index] * directionX + this.ys[index] * directionY;
+			if (product > startProduct + tolerance)
+				return step;
+			else if (product < startProduct - tolerance)
+				return 0;
+		}
+		
+		return 0;
+	}
+	
+	private double getProductTolerance(double directionX, double directionY)
 	{
-		return CirculationDirection.getTurnDirection(getEdge(startIndex + 1).getDirection() - 
-				getEdge(startIndex).getDirection());
+		// Rounding errors grow with the coordinates, so vertices on the same edge may have 
+		// slightly different products even when the edge is perpendicular to the direction
+		Vector3D topLeft = getTopLeft();
+		Vector3D bottomRight = getBottomRight();
+		double extent = Math.max(Math.max(Math.abs(topLeft.getX()), Math.abs(topLeft.getY())), 
+				Math.max(Math.abs(bottomRight.getX()), Math.abs(bottomRight.getY())));
+		return SUPPORT_TOLERANCE * extent * (Math.abs(directionX) + Math.abs(directionY));
 	}
 	
-	private CirculationDirection calculateCirculationDirection()
+	private Vector3D[] getVertexView()
 	{
-		double totalTurn = 0;
-		
-		for (int i = 0; i < getVertexAmount(); i++)
+		// The vertices are only created when they are needed. The coordinates never change, 
+		// so building the view twice does no harm.
+		Vector3D[] view = this.vertices;
+		if (view == null)
 		{
-			double dir1 = getEdge(i).getDirection();
-			double dir2 = getEdge(1 + i).getDirection();
-			
-			if (dir1 > 180)
-				dir1 -= 360;
-			if (dir2 > 180)
-				dir2 -= 360;
-			
-			totalTurn += dir2 - dir1;
+			view = new Vector3D[this.xs.length];
+			for (int i = 0; i < view.length; i++)
+			{
+				view[i] = new Vector3D(this.xs[i], this.ys[i]);
+			}
+			this.vertices = view;
 		}
 		
-		return CirculationDirection.getTurnDirection(totalTurn);
+		return view;
+	}
+	
+	private int wrapIndex(int index)
+	{
+		// Loops around the polygon
+		int vertexAmount = this.xs.length;
+		index %= vertexAmount;
+		if (index < 0)
+			index += vertexAmount;
+		
+		return index;
 	}
 	
 	private List<Vector3D> calculateAxes()
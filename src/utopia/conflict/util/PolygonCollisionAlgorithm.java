@@ -0,0 +1,37 @@
+package utopia.conflict.util;
+
+/**
+ * These are the different algorithms that can be used for checking collisions between two 
+ * convex polygons. Each algorithm produces the same collision data.
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+public enum PolygonCollisionAlgorithm
+{
+	/**
+	 * The separating axis theorem. The polygons are projected to the normals of each of 
+	 * their edges. This is fast for polygons with only a few vertices, but the cost grows 
+	 * quadratically with the vertex amount.
+	 */
+	SAT, 
+	/**
+	 * The Gilbert-Johnson-Keerthi algorithm, with the expanding polytope algorithm for 
+	 * calculating the penetration. Only support points of the polygons are needed, so the 
+	 * cost grows linearly with the vertex amount.
+	 */
+	GJK, 
+	/**
+	 * SAT performed in the relative space of one of the polygons. Only the other polygon's 
+	 * vertices are taken into that space while they are projected, so the polygons are never 
+	 * transformed into absolute space and their cached collision axes are reused between 
+	 * checks. When the polygons' transformations aren't known, this is the same as SAT.
+	 * @see CollisionCheck#checkPolygonCollision(Polygon, utopia.genesis.util.Transformation, 
+	 * Polygon, utopia.genesis.util.Transformation, boolean, boolean)
+	 */
+	RELATIVE_SAT, 
+	/**
+	 * SAT is used for polygons with few vertices and GJK for the polygons with many
+	 * @see CollisionCheck#GJK_VERTEX_THRESHOLD
+	 */
+	AUTOMATIC;
+}
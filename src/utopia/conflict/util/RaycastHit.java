@@ -0,0 +1,91 @@
+package utopia.conflict.util;
+
+import utopia.genesis.util.Vector3D;
+
+/**
+ * RaycastHits describe the point where a ray or a line segment first hits a shape
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+public class RaycastHit
+{
+	// ATTRIBUTES	--------------------------
+	
+	private final Vector3D point, normal;
+	private final double fraction, distance;
+	
+	
+	// CONSTRUCTOR	--------------------------
+	
+	/**
+	 * Creates a new hit
+	 * @param point The point where the ray hit the shape
+	 * @param normal The unit length surface normal of the shape at the hit point. The normal 
+	 * points against the ray.
+	 * @param fraction How far along the cast segment the hit occurred, between 0 (the start) 
+	 * and 1 (the end)
+	 * @param distance The distance between the start of the ray and the hit point
+	 */
+	public RaycastHit(Vector3D point, Vector3D normal, double fraction, double distance)
+	{
+		this.point = point;
+		this.normal = normal;
+		this.fraction = fraction;
+		this.distance = distance;
+	}
+
+	/**
+	 * Creates a copy of another hit
+	 * @param other The hit that is copied
+	 */
+	public RaycastHit(RaycastHit other)
+	{
+		this(other.point, other.normal, other.fraction, other.distance);
+	}
+
+
+	// IMPLEMENTED METHODS	------------------
+	
+	@Override
+	public String toString()
+	{
+		return this.point + " (normal " + this.normal + ", distance " + this.distance + ")";
+	}
+
+
+	// ACCESSORS	--------------------------
+	
+	/**
+	 * @return The point where the ray hit the shape
+	 */
+	public Vector3D getPoint()
+	{
+		return this.point;
+	}
+
+	/**
+	 * @return The unit length surface normal of the shape at the hit point. The normal 
+	 * points against the ray.
+	 */
+	public Vector3D getNormal()
+	{
+		return this.normal;
+	}
+
+	/**
+	 * @return How far along the cast segment the hit occurred, between 0 (the start) and 1 
+	 * (the end)
+	 */
+	public double getFraction()
+	{
+		return this.fraction;
+	}
+
+	/**
+	 * @return The distance between the start of the ray and the hit point
+	 */
+	public double getDistance()
+	{
+		return this.distance;
+	}
+}
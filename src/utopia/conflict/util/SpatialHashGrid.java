@@ -0,0 +1,455 @@
+package utopia.conflict.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import utopia.genesis.util.Vector3D;
+
+/**
+ * SpatialHashGrid is a broad phase that divides the space into uniform square cells. Each
+ * item is stored in each of the cells its bounds touch, so that only the items in the same
+ * cells need to be considered when searching for overlaps. The grid works best when the
+ * items are of similar size, and when the cell size is a bit larger than the typical item.
+ * @author Mikko Hilpinen
+ * @param <T> The type of item stored in the grid
+ * @since 16.10.2026
+ */
+public class SpatialHashGrid<T> implements BroadPhase<T>
+{
+	// ATTRIBUTES	--------------------------
+	
+	/**
+	 * Items that would span more cells than this are not stored in the cells at all but are
+	 * checked separately on each query
+	 */
+	private static final int MAX_CELLS_PER_ITEM = 256;
+	
+	private final double cellSize;
+	private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+	private final Map<T, Entry<T>> entries = new HashMap<>();
+	private final List<Entry<T>> oversizedEntries = new ArrayList<>();
+	
+	
+	// CONSTRUCTOR	--------------------------
+	
+	/**
+	 * Creates a new empty grid
+	 * @param cellSize The width and height of each grid cell
+	 */
+	public SpatialHashGrid(double cellSize)
+	{
+		if (cellSize <= 0)
+			throw new IllegalArgumentException("Grid cell size must be positive");
+		
+		this.cellSize = cellSize;
+	}
+
+
+	// IMPLEMENTED METHODS	------------------
+	
+	@Override
+	public void add(T item, Bounds bounds, long layers)
+	{
+		if (this.entries.containsKey(item))
+			update(item, bounds, layers);
+		else
+		{
+			Entry<T> entry = new Entry<>(item, layers);
+			setBounds(entry, bounds);
+			this.entries.put(item, entry);
+			insert(entry);
+		}
+	}
+
+	@Override
+	public void update(T item, Bounds bounds)
+	{
+		Entry<T> entry = this.entries.get(item);
+		if (entry == null)
+			add(item, bounds);
+		else
+		{
+			// The cells only need to be updated when the item moves to another set of cells
+			if (entry.minCellX == toCell(bounds.getMinX()) &&
+					entry.minCellY == toCell(bounds.getMinY()) &&
+					entry.maxCellX == toCell(bounds.getMaxX()) &&
+					entry.maxCellY == toCell(bounds.getMaxY()))
+				entry.bounds = bounds;
+			else
+			{
+				removeFromCells(entry);
+				setBounds(entry, bounds);
+				insert(entry);
+			}
+		}
+	}
+
+	@Override
+	public void update(T item, Bounds bounds, long layers)
+	{
+		Entry<T> entry = this.entries.get(item);
+		if (entry == null)
+			add(item, bounds, layers);
+		else
+		{
+			entry.layers = layers;
+			update(item, bounds);
+		}
+	}
+
+	@Override
+	public void remove(T item)
+	{
+		Entry<T> entry = this.entries.remove(item);
+		if (entry != null)
+			removeFromCells(entry);
+	}
+
+	@Override
+	public boolean contains(T item)
+	{
+		return this.entries.containsKey(item);
+	}
+
+	@Override
+	public void clear()
+	{
+		this.cells.clear();
+		this.entries.clear();
+		this.oversizedEntries.clear();
+	}
+
+	@Override
+	public void query(double minX, double minY, double maxX, double maxY, long layerMask, 
+			QueryCallback<? super T> callback)
+	{
+		query(minX, minY, maxX, maxY, layerMask, null, callback);
+	}
+
+	@Override
+	public void queryOverlapping(T item, long layerMask, Collection<? super T> results)
+	{
+		// The item's own entry is left out of the results
+		Entry<T> entry = this.entries.get(item);
+		if (entry != null)
+			query(entry.bounds.getMinX(), entry.bounds.getMinY(), entry.bounds.getMaxX(), 
+					entry.bounds.getMaxY(), layerMask, entry, results::add);
+	}
+
+	@Override
+	public void raycast(Vector3D start, Vector3D end, double maxFraction, long layerMask, 
+			RaycastCallback<? super T> callback)
+	{
+		double startX = start.getX(), startY = start.getY();
+		double deltaX = end.getX() - startX, deltaY = end.getY() - startY;
+		
+		// The items are collected as the segment passes through the cells but are only 
+		// reported once the segment has left all the cells where a nearer item could lie
+		PriorityQueue<RaycastCandidate<T>> pending = new PriorityQueue<>();
+		Set<Entry<T>> visited = new HashSet<>();
+		
+		int cellX = toCell(startX), cellY = toCell(startY);
+		int endCellX = toCell(end.getX()), endCellY = toCell(end.getY());
+		
+		// Very long segments are faster to check by going through the items directly
+		long cellAmount = (long) Math.abs(endCellX - cellX) + Math.abs(endCellY - cellY) + 1;
+		if (cellAmount > this.entries.size())
+		{
+			for (Entry<T> entry : this.entries.values())
+			{
+				addRaycastCandidate(pending, visited, entry, startX, startY, deltaX, deltaY, 
+						maxFraction, layerMask);
+			}
+			reportRaycastCandidates(pending, Double.POSITIVE_INFINITY, maxFraction, callback);
+			return;
+		}
+		
+		for (Entry<T> entry : this.oversizedEntries)
+		{
+			addRaycastCandidate(pending, visited, entry, startX, startY, deltaX, deltaY, 
+					maxFraction, layerMask);
+		}
+		
+		// Walks through the cells in the order the segment crosses them
+		int stepX = deltaX > 0 ? 1 : (deltaX < 0 ? -1 : 0);
+		int stepY = deltaY > 0 ? 1 : (deltaY < 0 ? -1 : 0);
+		double crossX = stepX == 0 ? Double.POSITIVE_INFINITY : this.cellSize / Math.abs(deltaX);
+		double crossY = stepY == 0 ? Double.POSITIVE_INFINITY : this.cellSize / Math.abs(deltaY);
+		double nextX = stepX == 0 ? Double.POSITIVE_INFINITY : 
+				((cellX + (stepX > 0 ? 1 : 0)) * this.cellSize - startX) / deltaX;
+		double nextY = stepY == 0 ? Double.POSITIVE_INFINITY : 
+				((cellY + (stepY > 0 ? 1 : 0)) * this.cellSize - startY) / deltaY;
+		
+		while (true)
+		{
+			List<Entry<T>> cell = this.cells.get(cellKey(cellX, cellY));
+			if (cell != null)
+			{
+				for (Entry<T> entry : cell)
+				{
+					addRaycastCandidate(pending, visited, entry, startX, startY, deltaX, deltaY, 
+							maxFraction, layerMask);
+				}
+			}
+			
+			double cellExit = Math.min(Math.min(nextX, nextY), 1);
+			maxFraction = reportRaycastCandidates(pending, cellExit, maxFraction, callback);
+			if (maxFraction <= 0 || cellExit >= maxFraction || 
+					(cellX == endCellX && cellY == endCellY))
+				break;
+			
+			if (nextX < nextY)
+			{
+				cellX += stepX;
+				nextX += crossX;
+			}
+			else
+			{
+				cellY += stepY;
+				nextY += crossY;
+			}
+		}
+		
+		// The remaining items all lie within the last cells
+		reportRaycastCandidates(pending, Double.POSITIVE_INFINITY, maxFraction, callback);
+	}
+
+
+	// ACCESSORS	--------------------------
+	
+	/**
+	 * @return The width and height of each grid cell
+	 */
+	public double getCellSize()
+	{
+		return this.cellSize;
+	}
+
+
+	// OTHER METHODS	----------------------
+	
+	private void query(double minX, double minY, double maxX, double maxY, long layerMask, 
+			Entry<T> excluded, QueryCallback<? super T> callback)
+	{
+		int minCellX = toCell(minX), minCellY = toCell(minY);
+		int maxCellX = toCell(maxX), maxCellY = toCell(maxY);
+		
+		// Very large areas are faster to check by going through the items directly
+		long cellAmount = (long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+		if (cellAmount > this.entries.size())
+		{
+			for (Entry<T> entry : this.entries.values())
+			{
+				if (entry != excluded && entry.isOnLayers(layerMask) && 
+						entry.bounds.overlaps(minX, minY, maxX, maxY))
+					callback.onItemFound(entry.item);
+			}
+			return;
+		}
+
+		for (int x = minCellX; x <= maxCellX; x++)
+		{
+			for (int y = minCellY; y <= maxCellY; y++)
+			{
+				List<Entry<T>> cell = this.cells.get(cellKey(x, y));
+				if (cell == null)
+					continue;
+				
+				for (int i = 0; i < cell.size(); i++)
+				{
+					// Each item is only reported in the first cell shared by the item and
+					// the searched area
+					Entry<T> entry = cell.get(i);
+					if (x == Math.max(entry.minCellX, minCellX) &&
+							y == Math.max(entry.minCellY, minCellY) && entry != excluded && 
+							entry.isOnLayers(layerMask) && 
+							entry.bounds.overlaps(minX, minY, maxX, maxY))
+						callback.onItemFound(entry.item);
+				}
+			}
+		}
+
+		for (int i = 0; i < this.oversizedEntries.size(); i++)
+		{
+			Entry<T> entry = this.oversizedEntries.get(i);
+			if (entry != excluded && entry.isOnLayers(layerMask) && 
+					entry.bounds.overlaps(minX, minY, maxX, maxY))
+				callback.onItemFound(entry.item);
+		}
+	}
+
+	private void setBounds(Entry<T> entry, Bounds bounds)
+	{
+		entry.bounds = bounds;
+		entry.setCells(toCell(bounds.getMinX()), toCell(bounds.getMinY()),
+				toCell(bounds.getMaxX()), toCell(bounds.getMaxY()));
+	}
+
+	private void insert(Entry<T> entry)
+	{
+		if (entry.isOversized())
+			this.oversizedEntries.add(entry);
+		else
+		{
+			for (int x = entry.minCellX; x <= entry.maxCellX; x++)
+			{
+				for (int y = entry.minCellY; y <= entry.maxCellY; y++)
+				{
+					Long key = cellKey(x, y);
+					List<Entry<T>> cell = this.cells.get(key);
+					if (cell == null)
+					{
+						cell = new ArrayList<>(4);
+						this.cells.put(key, cell);
+					}
+					cell.add(entry);
+				}
+			}
+		}
+	}
+
+	private void removeFromCells(Entry<T> entry)
+	{
+		if (entry.isOversized())
+			this.oversizedEntries.remove(entry);
+		else
+		{
+			for (int x = entry.minCellX; x <= entry.maxCellX; x++)
+			{
+				for (int y = entry.minCellY; y <= entry.maxCellY; y++)
+				{
+					Long key = cellKey(x, y);
+					List<Entry<T>> cell = this.cells.get(key);
+					if (cell != null)
+					{
+						cell.remove(entry);
+						if (cell.isEmpty())
+							this.cells.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	private int toCell(double coordinate)
+	{
+		return (int) Math.floor(coordinate / this.cellSize);
+	}
+
+	private static long cellKey(int x, int y)
+	{
+		return ((long) x << 32) | (y & 0xffffffffL);
+	}
+
+	private static <T> void addRaycastCandidate(PriorityQueue<RaycastCandidate<T>> pending, 
+			Set<Entry<T>> visited, Entry<T> entry, double startX, double startY, 
+			double deltaX, double deltaY, double maxFraction, long layerMask)
+	{
+		if (!entry.isOnLayers(layerMask) || !visited.add(entry))
+			return;
+		
+		double fraction = entry.bounds.getEntryFraction(startX, startY, deltaX, deltaY);
+		if (fraction >= 0 && fraction <= maxFraction)
+			pending.add(new RaycastCandidate<>(entry, fraction));
+	}
+
+	private static <T> double reportRaycastCandidates(
+			PriorityQueue<RaycastCandidate<T>> pending, double untilFraction, 
+			double maxFraction, RaycastCallback<? super T> callback)
+	{
+		while (!pending.isEmpty() && pending.peek().fraction <= untilFraction)
+		{
+			RaycastCandidate<T> candidate = pending.poll();
+			if (candidate.fraction > maxFraction)
+			{
+				pending.clear();
+				break;
+			}
+			
+			maxFraction = callback.onItemReached(candidate.entry.item, maxFraction);
+			if (maxFraction <= 0)
+			{
+				pending.clear();
+				break;
+			}
+		}
+		
+		return maxFraction;
+	}
+
+
+	// NESTED CLASSES	----------------------
+	
+	private static class RaycastCandidate<T> implements Comparable<RaycastCandidate<T>>
+	{
+		// ATTRIBUTES	----------------------
+		
+		private final Entry<T> entry;
+		private final double fraction;
+		
+		
+		// CONSTRUCTOR	----------------------
+		
+		public RaycastCandidate(Entry<T> entry, double fraction)
+		{
+			this.entry = entry;
+			this.fraction = fraction;
+		}
+
+
+		// IMPLEMENTED METHODS	--------------
+		
+		@Override
+		public int compareTo(RaycastCandidate<T> other)
+		{
+			return Double.compare(this.fraction, other.fraction);
+		}
+	}
+
+	private static class Entry<T>
+	{
+		// ATTRIBUTES	----------------------
+		
+		private final T item;
+		private Bounds bounds;
+		private long layers;
+		private int minCellX, minCellY, maxCellX, maxCellY;
+		
+		
+		// CONSTRUCTOR	----------------------
+		
+		public Entry(T item, long layers)
+		{
+			this.item = item;
+			this.layers = layers;
+		}
+
+
+		// OTHER METHODS	------------------
+		
+		public void setCells(int minCellX, int minCellY, int maxCellX, int maxCellY)
+		{
+			this.minCellX = minCellX;
+			this.minCellY = minCellY;
+			this.maxCellX = maxCellX;
+			this.maxCellY = maxCellY;
+		}
+
+		public boolean isOnLayers(long layerMask)
+		{
+			return (this.layers & layerMask) != 0;
+		}
+
+		public boolean isOversized()
+		{
+			return (long) (this.maxCellX - this.minCellX + 1) * 
+					(this.maxCellY - this.minCellY + 1) > MAX_CELLS_PER_ITEM;
+		}
+	}
+}
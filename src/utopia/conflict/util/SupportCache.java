@@ -0,0 +1,59 @@
+package utopia.conflict.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SupportCaches remember the extreme vertices found during the previous collision checks 
+ * between the same shapes. Since the shapes only move a little between the checks, the 
+ * extreme vertices can be searched starting from the previous ones, which is much faster 
+ * than going through all the vertices of large polygons. A cache should only be used for 
+ * checking a single pair of shapes and by a single thread at a time.
+ * @author Mikko Hilpinen
+ * @since 16.10.2026
+ */
+public class SupportCache
+{
+	// ATTRIBUTES	--------------------------
+	
+	private final List<int[]> indices = new ArrayList<>();
+	
+	
+	// CONSTRUCTOR	--------------------------
+	
+	/**
+	 * Creates a new empty cache
+	 */
+	public SupportCache()
+	{
+		// The indices are added when they are first needed
+	}
+
+
+	// OTHER METHODS	----------------------
+	
+	/**
+	 * Forgets all the remembered vertices. This should be done if the cache is used for 
+	 * different shapes.
+	 */
+	public void clear()
+	{
+		this.indices.clear();
+	}
+
+	/*
+	 * Finds the remembered vertex indices of a polygon pair. Shapes that consist of multiple 
+	 * polygons use a separate set of indices for each pair of polygons. The indices are 
+	 * {first maximum, first minimum, second maximum, second minimum} along the last 
+	 * direction used.
+	 */
+	int[] getIndices(int pairIndex)
+	{
+		while (this.indices.size() <= pairIndex)
+		{
+			this.indices.add(new int[4]);
+		}
+
+		return this.indices.get(pairIndex);
+	}
+}
@@ -0,0 +1,357 @@
+package utopia.conflict.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import utopia.genesis.util.Vector3D;
+
+/**
+ * SweepAndPrune is a broad phase that keeps the start and end points of each item's bounds 
+ * sorted along both axes. The sorted lists are kept between updates and re-sorted with 
+ * insertion sort, which is nearly linear when the items only move a little between updates. 
+ * The overlapping pairs are tracked while sorting, so they are always available without 
+ * additional searching.
+ * @author Mikko Hilpinen
+ * @param <T> The type of item stored in this broad phase
+ * @since 16.10.2026
+ */
+public class SweepAndPrune<T> implements BroadPhase<T>
+{
+	// ATTRIBUTES	--------------------------
+	
+	private final Map<T, Proxy<T>> proxies = new HashMap<>();
+	private final List<Endpoint<T>> xEndpoints = new ArrayList<>();
+	private final List<Endpoint<T>> yEndpoints = new ArrayList<>();
+	private boolean sorted = true;
+	private boolean containsRemoved = false;
+	
+	
+	// IMPLEMENTED METHODS	------------------
+	
+	@Override
+	public void add(T item, Bounds bounds, long layers)
+	{
+		if (this.proxies.containsKey(item))
+			update(item, bounds, layers);
+		else
+		{
+			// The new endpoints are added to the end of the lists and sorted into place later
+			Proxy<T> proxy = new Proxy<>(item, layers);
+			this.proxies.put(item, proxy);
+			this.xEndpoints.add(proxy.minX);
+			this.xEndpoints.add(proxy.maxX);
+			this.yEndpoints.add(proxy.minY);
+			this.yEndpoints.add(proxy.maxY);
+			proxy.setBounds(bounds);
+			this.sorted = false;
+		}
+	}
+
+	@Override
+	public void update(T item, Bounds bounds)
+	{
+		Proxy<T> proxy = this.proxies.get(item);
+		if (proxy == null)
+			add(item, bounds);
+		else
+		{
+			proxy.setBounds(bounds);
+			this.sorted = false;
+		}
+	}
+
+	@Override
+	public void update(T item, Bounds bounds, long layers)
+	{
+		Proxy<T> proxy = this.proxies.get(item);
+		if (proxy == null)
+			add(item, bounds, layers);
+		else
+		{
+			proxy.layers = layers;
+			update(item, bounds);
+		}
+	}
+
+	@Override
+	public void remove(T item)
+	{
+		Proxy<T> proxy = this.proxies.remove(item);
+		if (proxy != null)
+		{
+			// The endpoints are removed during the next sort
+			proxy.removed = true;
+			for (Proxy<T> other : proxy.overlaps)
+			{
+				other.overlaps.remove(proxy);
+			}
+			proxy.overlaps.clear();
+			
+			this.containsRemoved = true;
+			this.sorted = false;
+		}
+	}
+
+	@Override
+	public boolean contains(T item)
+	{
+		return this.proxies.containsKey(item);
+	}
+
+	@Override
+	public void clear()
+	{
+		this.proxies.clear();
+		this.xEndpoints.clear();
+		this.yEndpoints.clear();
+		this.sorted = true;
+		this.containsRemoved = false;
+	}
+
+	@Override
+	public void query(double minX, double minY, double maxX, double maxY, long layerMask, 
+			QueryCallback<? super T> callback)
+	{
+		sort();
+		
+		// Goes through the items that start before the end of the area
+		for (int i = 0; i < this.xEndpoints.size(); i++)
+		{
+			Endpoint<T> endpoint = this.xEndpoints.get(i);
+			if (endpoint.value > maxX)
+				break;
+			if (endpoint.isMin && endpoint.proxy.isOnLayers(layerMask) && 
+					endpoint.proxy.bounds.overlaps(minX, minY, maxX, maxY))
+				callback.onItemFound(endpoint.proxy.item);
+		}
+	}
+
+	@Override
+	public void queryOverlapping(T item, long layerMask, Collection<? super T> results)
+	{
+		Proxy<T> proxy = this.proxies.get(item);
+		if (proxy != null)
+		{
+			sort();
+			for (Proxy<T> other : proxy.overlaps)
+			{
+				if (other.isOnLayers(layerMask))
+					results.add(other.item);
+			}
+		}
+	}
+
+	@Override
+	public void raycast(Vector3D start, Vector3D end, double maxFraction, long layerMask, 
+			RaycastCallback<? super T> callback)
+	{
+		sort();
+		
+		double startX = start.getX(), startY = start.getY();
+		double deltaX = end.getX() - startX, deltaY = end.getY() - startY;
+		double segmentMaxX = Math.max(startX, end.getX());
+		
+		// Collects the items that start before the end of the segment and sorts them by 
+		// the point where the segment enters them
+		List<RaycastCandidate<T>> candidates = new ArrayList<>();
+		for (Endpoint<T> endpoint : this.xEndpoints)
+		{
+			if (endpoint.value > segmentMaxX)
+				break;
+			if (endpoint.isMin && endpoint.proxy.isOnLayers(layerMask))
+			{
+				double fraction = endpoint.proxy.bounds.getEntryFraction(startX, startY, 
+						deltaX, deltaY);
+				if (fraction >= 0 && fraction <= maxFraction)
+					candidates.add(new RaycastCandidate<>(endpoint.proxy, fraction));
+			}
+		}
+		Collections.sort(candidates);
+		
+		for (RaycastCandidate<T> candidate : candidates)
+		{
+			if (candidate.fraction > maxFraction)
+				break;
+			
+			maxFraction = callback.onItemReached(candidate.proxy.item, maxFraction);
+			if (maxFraction <= 0)
+				break;
+		}
+	}
+
+	@Override
+	public void flush()
+	{
+		sort();
+	}
+
+
+	// OTHER METHODS	----------------------
+	
+	private void sort()
+	{
+		if (this.sorted)
+			return;
+		
+		if (this.containsRemoved)
+		{
+			this.xEndpoints.removeIf(endpoint -> endpoint.proxy.removed);
+			this.yEndpoints.removeIf(endpoint -> endpoint.proxy.removed);
+			this.containsRemoved = false;
+		}
+
+		insertionSort(this.xEndpoints);
+		insertionSort(this.yEndpoints);
+		this.sorted = true;
+	}
+
+	private static <T> void insertionSort(List<Endpoint<T>> endpoints)
+	{
+		for (int i = 1; i < endpoints.size(); i++)
+		{
+			Endpoint<T> endpoint = endpoints.get(i);
+			int j = i - 1;
+			
+			while (j >= 0 && endpoint.isBefore(endpoints.get(j)))
+			{
+				Endpoint<T> passed = endpoints.get(j);
+				
+				// When a start point passes an end point, the items may start overlapping. 
+				// When an end point passes a start point, the items stop overlapping.
+				if (endpoint.isMin && !passed.isMin)
+					beginOverlap(endpoint.proxy, passed.proxy);
+				else if (!endpoint.isMin && passed.isMin)
+					endOverlap(endpoint.proxy, passed.proxy);
+				
+				endpoints.set(j + 1, passed);
+				j --;
+			}
+
+			endpoints.set(j + 1, endpoint);
+		}
+	}
+
+	private static <T> void beginOverlap(Proxy<T> first, Proxy<T> second)
+	{
+		// The overlap must exist on the other axis as well
+		if (first != second && first.bounds.overlaps(second.bounds))
+		{
+			first.overlaps.add(second);
+			second.overlaps.add(first);
+		}
+	}
+
+	private static <T> void endOverlap(Proxy<T> first, Proxy<T> second)
+	{
+		first.overlaps.remove(second);
+		second.overlaps.remove(first);
+	}
+
+
+	// NESTED CLASSES	----------------------
+	
+	private static class RaycastCandidate<T> implements Comparable<RaycastCandidate<T>>
+	{
+		// ATTRIBUTES	----------------------
+		
+		private final Proxy<T> proxy;
+		private final double fraction;
+		
+		
+		// CONSTRUCTOR	----------------------
+		
+		public RaycastCandidate(Proxy<T> proxy, double fraction)
+		{
+			this.proxy = proxy;
+			this.fraction = fraction;
+		}
+
+
+		// IMPLEMENTED METHODS	--------------
+		
+		@Override
+		public int compareTo(RaycastCandidate<T> other)
+		{
+			return Double.compare(this.fraction, other.fraction);
+		}
+	}
+
+	private static class Proxy<T>
+	{
+		// ATTRIBUTES	----------------------
+		
+		private final T item;
+		private final Endpoint<T> minX, maxX, minY, maxY;
+		private final Set<Proxy<T>> overlaps = new HashSet<>();
+		private Bounds bounds;
+		private long layers;
+		private boolean removed = false;
+		
+		
+		// CONSTRUCTOR	----------------------
+		
+		public Proxy(T item, long layers)
+		{
+			this.item = item;
+			this.layers = layers;
+			this.minX = new Endpoint<>(this, true);
+			this.maxX = new Endpoint<>(this, false);
+			this.minY = new Endpoint<>(this, true);
+			this.maxY = new Endpoint<>(this, false);
+		}
+
+
+		// OTHER METHODS	------------------
+		
+		public boolean isOnLayers(long layerMask)
+		{
+			return (this.layers & layerMask) != 0;
+		}
+
+		public void setBounds(Bounds bounds)
+		{
+			this.bounds = bounds;
+			this.minX.value = bounds.getMinX();
+			this.maxX.value = bounds.getMaxX();
+			this.minY.value = bounds.getMinY();
+			this.maxY.value = bounds.getMaxY();
+		}
+	}
+
+	private static class Endpoint<T>
+	{
+		// ATTRIBUTES	----------------------
+		
+		private final Proxy<T> proxy;
+		private final boolean isMin;
+		private double value;
+		
+		
+		// CONSTRUCTOR	----------------------
+		
+		public Endpoint(Proxy<T> proxy, boolean isMin)
+		{
+			this.proxy = proxy;
+			this.isMin = isMin;
+		}
+
+
+		// OTHER METHODS	------------------
+		
+		public boolean isBefore(Endpoint<T> other)
+		{
+			// Start points are placed before end points at the same location so that touching 
+			// items are considered overlapping
+			if (this.value == other.value)
+				return this.isMin && !other.isMin;
+			else
+				return this.value < other.value;
+		}
+	}
+}